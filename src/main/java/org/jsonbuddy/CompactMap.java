@@ -0,0 +1,352 @@
+package org.jsonbuddy;
+
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.BiConsumer;
+
+/**
+ * The storage of the members of a {@link JsonObject}: the keys are kept in
+ * an {@link ObjectShape}, which is shared by all objects with the same keys
+ * in the same order, and the values in an array in the same order, with no
+ * object per entry. Small objects are searched with a linear scan, and larger
+ * objects with a hash index in the shape.
+ * <p>
+ * Removing a member shifts the following members down, so removal costs
+ * time proportional to the size of the object, which is fine for the
+ * way JsonObjects are used.
+ * <p>
+ * After {@link #freeze()}, every change throws UnsupportedOperationException,
+ * and the hash code is computed only once.
+ */
+final class CompactMap extends MemberMap {
+
+    private static final JsonNode[] NO_VALUES = new JsonNode[0];
+
+    private ObjectShape shape;
+    private JsonNode[] values;
+    private int modCount;
+    private boolean frozen;
+    private int hashCode;
+
+    CompactMap() {
+        this.shape = ObjectShape.EMPTY;
+        this.values = NO_VALUES;
+    }
+
+    private CompactMap(ObjectShape shape, JsonNode[] values) {
+        this.shape = shape;
+        this.values = values;
+    }
+
+    @Override
+    public int size() {
+        return shape.size();
+    }
+
+    @Override
+    public JsonNode get(Object key) {
+        int position = shape.positionOf(key);
+        return position >= 0 ? values[position] : null;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return shape.positionOf(key) >= 0;
+    }
+
+    @Override
+    void freeze() {
+        if (frozen) {
+            return;
+        }
+        for (int i = 0; i < shape.size(); i++) {
+            values[i].freeze();
+        }
+        frozen = true;
+    }
+
+    @Override
+    boolean isFrozen() {
+        return frozen;
+    }
+
+    /**
+     * Returns a copy with the key set to the value, or a {@link TrieMap} for large maps
+     */
+    @Override
+    MemberMap with(String key, JsonNode value) {
+        freeze();
+        if (isLarge()) {
+            return TrieMap.of(this).with(key, value);
+        }
+        CompactMap copy = new CompactMap(shape.copy(), Arrays.copyOf(values, shape.size()));
+        copy.put(key, value);
+        copy.freeze();
+        return copy;
+    }
+
+    @Override
+    MemberMap without(String key) {
+        freeze();
+        int position = shape.positionOf(key);
+        if (position < 0) {
+            return this;
+        } else if (isLarge()) {
+            return TrieMap.of(this).without(key);
+        }
+        CompactMap copy = new CompactMap(shape.copy(), Arrays.copyOf(values, shape.size()));
+        copy.removeAt(position);
+        copy.freeze();
+        return copy;
+    }
+
+    /**
+     * New versions of maps with at least {@link TrieMap#MIN_SIZE} members are TrieMaps
+     */
+    private boolean isLarge() {
+        return shape.size() >= TrieMap.MIN_SIZE;
+    }
+
+    @Override
+    public void forEach(BiConsumer<? super String, ? super JsonNode> action) {
+        for (int i = 0; i < shape.size(); i++) {
+            action.accept(shape.keyAt(i), values[i]);
+        }
+    }
+
+    private void checkNotFrozen() {
+        if (frozen) {
+            throw new UnsupportedOperationException("A frozen JsonObject can not be changed");
+        }
+    }
+
+    @Override
+    public JsonNode put(String key, JsonNode value) {
+        checkNotFrozen();
+        int position = shape.positionOf(key);
+        if (position >= 0) {
+            JsonNode previous = values[position];
+            values[position] = value;
+            return previous;
+        }
+        int size = shape.size();
+        if (size == values.length) {
+            values = Arrays.copyOf(values, Math.max(4, size + (size >> 1)));
+        }
+        values[size] = value;
+        shape = shape.with(key);
+        modCount++;
+        return null;
+    }
+
+    @Override
+    public JsonNode remove(Object key) {
+        checkNotFrozen();
+        int position = shape.positionOf(key);
+        if (position < 0) {
+            return null;
+        }
+        JsonNode previous = values[position];
+        removeAt(position);
+        return previous;
+    }
+
+    @Override
+    public void clear() {
+        checkNotFrozen();
+        Arrays.fill(values, 0, shape.size(), null);
+        shape = ObjectShape.EMPTY;
+        modCount++;
+    }
+
+    private void removeAt(int position) {
+        checkNotFrozen();
+        int size = shape.size();
+        System.arraycopy(values, position + 1, values, position, size - position - 1);
+        values[size - 1] = null;
+        shape = shape.without(position);
+        modCount++;
+    }
+
+    /**
+     * Returns a copy with a deep clone of every value, which shares the shape
+     * of this map if it is shared
+     */
+    @Override
+    CompactMap deepClone() {
+        JsonNode[] clonedValues = new JsonNode[shape.size()];
+        for (int i = 0; i < clonedValues.length; i++) {
+            clonedValues[i] = values[i].deepClone();
+        }
+        return new CompactMap(shape.copy(), clonedValues);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (!(o instanceof CompactMap)) {
+            return super.equals(o);
+        }
+        CompactMap that = (CompactMap) o;
+        if (shape.size() != that.shape.size()) {
+            return false;
+        }
+        if (frozen && that.frozen && hashCode() != that.hashCode()) {
+            return false;
+        }
+        if (shape == that.shape) {
+            return Arrays.equals(values, 0, shape.size(), that.values, 0, shape.size());
+        }
+        for (int i = 0; i < shape.size(); i++) {
+            int position = that.shape.positionOf(shape.keyAt(i));
+            if (position < 0 || !Objects.equals(values[i], that.values[position])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * The same as {@link Map#hashCode()}, without creating the entries.
+     * Cached when the map is frozen.
+     */
+    @Override
+    public int hashCode() {
+        int hashCode = this.hashCode;
+        if (hashCode == 0) {
+            for (int i = 0; i < shape.size(); i++) {
+                hashCode += Objects.hashCode(shape.keyAt(i)) ^ Objects.hashCode(values[i]);
+            }
+            if (frozen) {
+                this.hashCode = hashCode;
+            }
+        }
+        return hashCode;
+    }
+
+    @Override
+    public Set<String> keySet() {
+        return new AbstractSet<String>() {
+            @Override
+            public Iterator<String> iterator() {
+                return new PositionIterator<String>() {
+                    @Override
+                    String element(int position) {
+                        return shape.keyAt(position);
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return shape.size();
+            }
+
+            @Override
+            public boolean contains(Object o) {
+                return containsKey(o);
+            }
+
+            @Override
+            public boolean remove(Object o) {
+                int position = shape.positionOf(o);
+                if (position < 0) {
+                    return false;
+                }
+                removeAt(position);
+                return true;
+            }
+
+            @Override
+            public void clear() {
+                CompactMap.this.clear();
+            }
+        };
+    }
+
+    @Override
+    public Set<Entry<String, JsonNode>> entrySet() {
+        return new AbstractSet<Entry<String, JsonNode>>() {
+            @Override
+            public Iterator<Entry<String, JsonNode>> iterator() {
+                return new PositionIterator<Entry<String, JsonNode>>() {
+                    @Override
+                    Entry<String, JsonNode> element(int position) {
+                        return new MemberEntry(shape.keyAt(position), values[position]);
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return shape.size();
+            }
+
+            @Override
+            public void clear() {
+                CompactMap.this.clear();
+            }
+        };
+    }
+
+    private abstract class PositionIterator<T> implements Iterator<T> {
+        private int next;
+        private int last = -1;
+        private int expectedModCount = modCount;
+
+        abstract T element(int position);
+
+        @Override
+        public boolean hasNext() {
+            return next < shape.size();
+        }
+
+        @Override
+        public T next() {
+            if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+            if (next >= shape.size()) {
+                throw new NoSuchElementException();
+            }
+            last = next++;
+            return element(last);
+        }
+
+        @Override
+        public void remove() {
+            if (last < 0) {
+                throw new IllegalStateException();
+            }
+            if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+            removeAt(last);
+            next = last;
+            last = -1;
+            expectedModCount = modCount;
+        }
+    }
+
+    /**
+     * An entry that writes changes of its value through to the map
+     */
+    private class MemberEntry extends SimpleEntry<String, JsonNode> {
+        private static final long serialVersionUID = 1L;
+
+        MemberEntry(String key, JsonNode value) {
+            super(key, value);
+        }
+
+        @Override
+        public JsonNode setValue(JsonNode value) {
+            put(getKey(), value);
+            return super.setValue(value);
+        }
+    }
+}
@@ -0,0 +1,391 @@
+package org.jsonbuddy;
+
+import java.io.PrintWriter;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * The storage of the elements of a {@link JsonArray}. An array of JsonNodes
+ * in general, but arrays where all elements are integers or all are decimals
+ * can be stored in a <code>long[]</code> or <code>double[]</code>, with 8 bytes
+ * per element instead of a JsonNumber with a boxed value. The JsonNumber for
+ * such an element is only created when the element is read as a JsonNode, and
+ * {@link #longAt}, {@link #doubleAt} and {@link #toJson} read the primitive
+ * values directly.
+ * <p>
+ * A primitive list stays primitive as long as the elements that are
+ * added or set are numbers of the same kind, and is converted to JsonNodes
+ * when any other element is stored in it.
+ * <p>
+ * After {@link #freeze()}, every change throws UnsupportedOperationException,
+ * and the hash code is computed only once. New versions of a frozen list are
+ * created with {@link #with} and {@link #withAdded}, which store large lists
+ * in a {@link PersistentVector}, so each new version shares all but one path
+ * of the vector with the previous one.
+ */
+final class ElementList extends AbstractList<JsonNode> implements RandomAccess {
+
+    /** The smallest lists that are stored in a PersistentVector, as smaller lists are cheaper to copy */
+    private static final int MIN_VECTOR_SIZE = 32;
+
+    private static final JsonNode[] NO_NODES = new JsonNode[0];
+
+    private JsonNode[] nodes;
+    private long[] longs;
+    private double[] doubles;
+    private PersistentVector<JsonNode> vector;
+    private int size;
+    private boolean frozen;
+    private int hashCode;
+
+    ElementList() {
+        this.nodes = NO_NODES;
+    }
+
+    ElementList(Collection<? extends JsonNode> nodes) {
+        this.nodes = nodes.toArray(new JsonNode[0]);
+        this.size = this.nodes.length;
+    }
+
+    static ElementList ofLongs(long[] longs) {
+        ElementList list = new ElementList();
+        list.nodes = null;
+        list.longs = longs;
+        list.size = longs.length;
+        return list;
+    }
+
+    static ElementList ofDoubles(double[] doubles) {
+        ElementList list = new ElementList();
+        list.nodes = null;
+        list.doubles = doubles;
+        list.size = doubles.length;
+        return list;
+    }
+
+    private static ElementList ofVector(PersistentVector<JsonNode> vector) {
+        ElementList list = new ElementList();
+        list.nodes = null;
+        list.vector = vector;
+        list.size = vector.size();
+        list.frozen = true;
+        return list;
+    }
+
+    /**
+     * Returns a frozen list with the element at the index replaced, which shares
+     * the elements with this list. Freezes this list.
+     */
+    ElementList with(int index, JsonNode element) {
+        checkIndex(index, size);
+        freeze();
+        if (vector == null && size < MIN_VECTOR_SIZE) {
+            ElementList copy = new ElementList(this);
+            copy.nodes[index] = element;
+            copy.freeze();
+            return copy;
+        }
+        return ofVector(toVector().set(index, element));
+    }
+
+    /**
+     * Returns a frozen list with the element added at the end, which shares
+     * the elements with this list. Freezes this list.
+     */
+    ElementList withAdded(JsonNode element) {
+        freeze();
+        if (vector == null && size + 1 < MIN_VECTOR_SIZE) {
+            ElementList copy = new ElementList(this);
+            copy.add(element);
+            copy.freeze();
+            return copy;
+        }
+        return ofVector(toVector().append(element));
+    }
+
+    private PersistentVector<JsonNode> toVector() {
+        return vector != null ? vector : PersistentVector.of(this);
+    }
+
+    /**
+     * Makes this list and all its elements immutable
+     */
+    void freeze() {
+        if (frozen) {
+            return;
+        }
+        if (nodes != null) {
+            for (int i = 0; i < size; i++) {
+                nodes[i].freeze();
+            }
+        }
+        frozen = true;
+    }
+
+    boolean isFrozen() {
+        return frozen;
+    }
+
+    private void checkNotFrozen() {
+        if (frozen) {
+            throw new UnsupportedOperationException("A frozen JsonArray can not be changed");
+        }
+    }
+
+    /**
+     * True if the elements are stored as a <code>long[]</code> or <code>double[]</code>
+     */
+    boolean isPrimitive() {
+        return longs != null || doubles != null;
+    }
+
+    /**
+     * The element as a long. Only for primitive lists.
+     */
+    long longAt(int index) {
+        return longs != null ? longs[index] : (long) doubles[index];
+    }
+
+    /**
+     * The element as a double. Only for primitive lists.
+     */
+    double doubleAt(int index) {
+        return longs != null ? (double) longs[index] : doubles[index];
+    }
+
+    /**
+     * Writes the JSON text of the element
+     */
+    void toJson(int index, PrintWriter printWriter, String currentIntentation, String indentationAmount) {
+        if (longs != null) {
+            printWriter.print(longs[index]);
+        } else if (doubles != null) {
+            printWriter.print(doubles[index]);
+        } else if (vector != null) {
+            vector.get(index).toJson(printWriter, currentIntentation, indentationAmount);
+        } else {
+            nodes[index].toJson(printWriter, currentIntentation, indentationAmount);
+        }
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public JsonNode get(int index) {
+        checkIndex(index, size);
+        if (longs != null) {
+            return new JsonNumber(longs[index]);
+        } else if (doubles != null) {
+            return new JsonNumber(doubles[index]);
+        } else if (vector != null) {
+            return vector.get(index);
+        }
+        return nodes[index];
+    }
+
+    @Override
+    public Iterator<JsonNode> iterator() {
+        return vector != null ? vector.iterator() : super.iterator();
+    }
+
+    @Override
+    public JsonNode set(int index, JsonNode element) {
+        checkNotFrozen();
+        JsonNode previous = get(index);
+        if (longs != null && isLong(element)) {
+            longs[index] = ((JsonNumber) element).longValue();
+        } else if (doubles != null && isDouble(element)) {
+            doubles[index] = ((JsonNumber) element).doubleValue();
+        } else {
+            toNodes();
+            nodes[index] = element;
+        }
+        return previous;
+    }
+
+    @Override
+    public void add(int index, JsonNode element) {
+        checkNotFrozen();
+        checkIndex(index, size + 1);
+        if (longs != null && isLong(element)) {
+            if (size == longs.length) {
+                longs = Arrays.copyOf(longs, newCapacity());
+            }
+            System.arraycopy(longs, index, longs, index + 1, size - index);
+            longs[index] = ((JsonNumber) element).longValue();
+        } else if (doubles != null && isDouble(element)) {
+            if (size == doubles.length) {
+                doubles = Arrays.copyOf(doubles, newCapacity());
+            }
+            System.arraycopy(doubles, index, doubles, index + 1, size - index);
+            doubles[index] = ((JsonNumber) element).doubleValue();
+        } else {
+            toNodes();
+            if (size == nodes.length) {
+                nodes = Arrays.copyOf(nodes, newCapacity());
+            }
+            System.arraycopy(nodes, index, nodes, index + 1, size - index);
+            nodes[index] = element;
+        }
+        size++;
+        modCount++;
+    }
+
+    @Override
+    public JsonNode remove(int index) {
+        checkNotFrozen();
+        JsonNode previous = get(index);
+        int moved = size - index - 1;
+        if (longs != null) {
+            System.arraycopy(longs, index + 1, longs, index, moved);
+        } else if (doubles != null) {
+            System.arraycopy(doubles, index + 1, doubles, index, moved);
+        } else {
+            System.arraycopy(nodes, index + 1, nodes, index, moved);
+            nodes[size - 1] = null;
+        }
+        size--;
+        modCount++;
+        return previous;
+    }
+
+    @Override
+    public void clear() {
+        checkNotFrozen();
+        nodes = NO_NODES;
+        longs = null;
+        doubles = null;
+        size = 0;
+        modCount++;
+    }
+
+    /**
+     * Returns a copy of this list, with the elements copied by the primitive arrays or
+     * the deep clones of the nodes
+     */
+    ElementList deepClone() {
+        if (longs != null) {
+            return ofLongs(Arrays.copyOf(longs, size));
+        } else if (doubles != null) {
+            return ofDoubles(Arrays.copyOf(doubles, size));
+        }
+        ElementList clone = new ElementList();
+        clone.nodes = new JsonNode[size];
+        for (int i = 0; i < size; i++) {
+            clone.nodes[i] = get(i).deepClone();
+        }
+        clone.size = size;
+        return clone;
+    }
+
+    long[] toLongArray() {
+        if (longs != null) {
+            return Arrays.copyOf(longs, size);
+        }
+        long[] result = new long[size];
+        for (int i = 0; i < size; i++) {
+            result[i] = (long) doubles[i];
+        }
+        return result;
+    }
+
+    double[] toDoubleArray() {
+        if (doubles != null) {
+            return Arrays.copyOf(doubles, size);
+        }
+        double[] result = new double[size];
+        for (int i = 0; i < size; i++) {
+            result[i] = longs[i];
+        }
+        return result;
+    }
+
+    /**
+     * Compares primitive lists of the same kind without creating JsonNumbers
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (o instanceof ElementList) {
+            ElementList that = (ElementList) o;
+            if (frozen && that.frozen && (size != that.size || hashCode() != that.hashCode())) {
+                return false;
+            }
+            if (longs != null && that.longs != null) {
+                return Arrays.equals(longs, 0, size, that.longs, 0, that.size);
+            } else if (doubles != null && that.doubles != null) {
+                return Arrays.equals(doubles, 0, size, that.doubles, 0, that.size);
+            }
+        }
+        return super.equals(o);
+    }
+
+    /**
+     * The same as {@link List#hashCode()}, without creating JsonNumbers.
+     * Cached when the list is frozen.
+     */
+    @Override
+    public int hashCode() {
+        int hashCode = this.hashCode;
+        if (hashCode == 0) {
+            hashCode = computeHashCode();
+            if (frozen) {
+                this.hashCode = hashCode;
+            }
+        }
+        return hashCode;
+    }
+
+    private int computeHashCode() {
+        if (!isPrimitive()) {
+            return super.hashCode();
+        }
+        int hashCode = 1;
+        for (int i = 0; i < size; i++) {
+            int elementHash = longs != null ? Long.hashCode(longs[i]) : Double.hashCode(doubles[i]);
+            hashCode = 31 * hashCode + (31 + elementHash);
+        }
+        return hashCode;
+    }
+
+    private void toNodes() {
+        if (nodes != null) {
+            return;
+        }
+        JsonNode[] converted = new JsonNode[Math.max(size, 4)];
+        for (int i = 0; i < size; i++) {
+            converted[i] = get(i);
+        }
+        nodes = converted;
+        longs = null;
+        doubles = null;
+    }
+
+    private int newCapacity() {
+        return Math.max(4, size + (size >> 1));
+    }
+
+    /**
+     * Only plain JsonNumbers are stored as primitives, as subclasses like the numbers
+     * created by the parser may write a different text than the primitive value
+     */
+    private static boolean isLong(JsonNode element) {
+        return element.getClass() == JsonNumber.class && ((JsonNumber) element).javaObjectValue() instanceof Long;
+    }
+
+    private static boolean isDouble(JsonNode element) {
+        return element.getClass() == JsonNumber.class && ((JsonNumber) element).javaObjectValue() instanceof Double;
+    }
+
+    private static void checkIndex(int index, int size) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+    }
+}
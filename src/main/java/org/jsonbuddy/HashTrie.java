@@ -0,0 +1,205 @@
+package org.jsonbuddy;
+
+/**
+ * An immutable map from String keys, stored as a hash array mapped trie:
+ * each level of the trie uses the next 5 bits of the hash of the key to pick
+ * one of 32 branches, and a node only has room for the branches that are in
+ * use, as given by a bitmap. {@link #with} and {@link #without} return a new
+ * trie that shares all nodes except the path to the changed key. Keys with the
+ * same hash code end up in a node below the last level, which is searched
+ * linearly.
+ */
+final class HashTrie {
+
+    private static final int BITS = 5;
+    private static final int MASK = (1 << BITS) - 1;
+    /** The shift of the last level, which uses the two highest bits of the hash */
+    private static final int MAX_SHIFT = 30;
+
+    static final HashTrie EMPTY = new HashTrie(new Node(0, new Object[0]), 0);
+
+    /**
+     * A bitmap of the branches that are in use, and for each of them, a key and
+     * a value, or null and a child Node. Nodes below {@link #MAX_SHIFT} have
+     * no bitmap and a list of keys and values with the same hash.
+     */
+    private static final class Node {
+        final int bitmap;
+        final Object[] array;
+
+        Node(int bitmap, Object[] array) {
+            this.bitmap = bitmap;
+            this.array = array;
+        }
+
+        Node replacing(int i, Object value) {
+            Object[] copy = array.clone();
+            copy[i] = value;
+            return new Node(bitmap, copy);
+        }
+    }
+
+    private final Node root;
+    private final int size;
+
+    private HashTrie(Node root, int size) {
+        this.root = root;
+        this.size = size;
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * Returns the value for the key, or null if the trie does not have the key
+     */
+    Object get(String key) {
+        int hash = key.hashCode();
+        Node node = root;
+        for (int shift = 0; ; shift += BITS) {
+            if (shift > MAX_SHIFT) {
+                for (int i = 0; i < node.array.length; i += 2) {
+                    if (key.equals(node.array[i])) {
+                        return node.array[i + 1];
+                    }
+                }
+                return null;
+            }
+            int bit = bit(hash, shift);
+            if ((node.bitmap & bit) == 0) {
+                return null;
+            }
+            int i = index(node.bitmap, bit);
+            Object nodeKey = node.array[i];
+            if (nodeKey == null) {
+                node = (Node) node.array[i + 1];
+            } else {
+                return key.equals(nodeKey) ? node.array[i + 1] : null;
+            }
+        }
+    }
+
+    /**
+     * Returns a trie with the key set to the value
+     */
+    HashTrie with(String key, Object value) {
+        boolean[] added = new boolean[1];
+        Node newRoot = put(root, 0, key.hashCode(), key, value, added);
+        return new HashTrie(newRoot, added[0] ? size + 1 : size);
+    }
+
+    /**
+     * Returns a trie without the key, or this trie if it does not have the key
+     */
+    HashTrie without(String key) {
+        Node newRoot = remove(root, 0, key.hashCode(), key);
+        if (newRoot == root) {
+            return this;
+        }
+        return newRoot != null ? new HashTrie(newRoot, size - 1) : EMPTY;
+    }
+
+    private static Node put(Node node, int shift, int hash, String key, Object value, boolean[] added) {
+        if (shift > MAX_SHIFT) {
+            for (int i = 0; i < node.array.length; i += 2) {
+                if (key.equals(node.array[i])) {
+                    return node.replacing(i + 1, value);
+                }
+            }
+            added[0] = true;
+            return new Node(0, insert(node.array, node.array.length, key, value));
+        }
+        int bit = bit(hash, shift);
+        int i = index(node.bitmap, bit);
+        if ((node.bitmap & bit) == 0) {
+            added[0] = true;
+            return new Node(node.bitmap | bit, insert(node.array, i, key, value));
+        }
+        Object nodeKey = node.array[i];
+        if (nodeKey == null) {
+            return node.replacing(i + 1, put((Node) node.array[i + 1], shift + BITS, hash, key, value, added));
+        } else if (key.equals(nodeKey)) {
+            return node.replacing(i + 1, value);
+        }
+        added[0] = true;
+        String otherKey = (String) nodeKey;
+        Node child = pair(shift + BITS, otherKey, node.array[i + 1], otherKey.hashCode(), key, value, hash);
+        Object[] array = node.array.clone();
+        array[i] = null;
+        array[i + 1] = child;
+        return new Node(node.bitmap, array);
+    }
+
+    private static Node pair(int shift, String key1, Object value1, int hash1, String key2, Object value2, int hash2) {
+        if (shift > MAX_SHIFT) {
+            return new Node(0, new Object[] { key1, value1, key2, value2 });
+        }
+        int fragment1 = (hash1 >>> shift) & MASK;
+        int fragment2 = (hash2 >>> shift) & MASK;
+        if (fragment1 == fragment2) {
+            return new Node(1 << fragment1, new Object[] { null, pair(shift + BITS, key1, value1, hash1, key2, value2, hash2) });
+        } else if (fragment1 < fragment2) {
+            return new Node((1 << fragment1) | (1 << fragment2), new Object[] { key1, value1, key2, value2 });
+        } else {
+            return new Node((1 << fragment1) | (1 << fragment2), new Object[] { key2, value2, key1, value1 });
+        }
+    }
+
+    /**
+     * Returns the node without the key, the same node if it does not have the key,
+     * or null if the node would be empty
+     */
+    private static Node remove(Node node, int shift, int hash, String key) {
+        if (shift > MAX_SHIFT) {
+            for (int i = 0; i < node.array.length; i += 2) {
+                if (key.equals(node.array[i])) {
+                    return node.array.length > 2 ? new Node(0, delete(node.array, i)) : null;
+                }
+            }
+            return node;
+        }
+        int bit = bit(hash, shift);
+        if ((node.bitmap & bit) == 0) {
+            return node;
+        }
+        int i = index(node.bitmap, bit);
+        Object nodeKey = node.array[i];
+        if (nodeKey == null) {
+            Node child = (Node) node.array[i + 1];
+            Node newChild = remove(child, shift + BITS, hash, key);
+            if (newChild == child) {
+                return node;
+            } else if (newChild != null) {
+                return node.replacing(i + 1, newChild);
+            }
+        } else if (!key.equals(nodeKey)) {
+            return node;
+        }
+        return node.array.length > 2 ? new Node(node.bitmap & ~bit, delete(node.array, i)) : null;
+    }
+
+    private static Object[] insert(Object[] array, int i, Object key, Object value) {
+        Object[] result = new Object[array.length + 2];
+        System.arraycopy(array, 0, result, 0, i);
+        result[i] = key;
+        result[i + 1] = value;
+        System.arraycopy(array, i, result, i + 2, array.length - i);
+        return result;
+    }
+
+    private static Object[] delete(Object[] array, int i) {
+        Object[] result = new Object[array.length - 2];
+        System.arraycopy(array, 0, result, 0, i);
+        System.arraycopy(array, i + 2, result, i, array.length - i - 2);
+        return result;
+    }
+
+    private static int bit(int hash, int shift) {
+        return 1 << ((hash >>> shift) & MASK);
+    }
+
+    private static int index(int bitmap, int bit) {
+        return 2 * Integer.bitCount(bitmap & (bit - 1));
+    }
+}
@@ -6,17 +6,18 @@ import org.jsonbuddy.parse.JsonParser;
 
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.InputStreamReader;
 import java.io.PrintWriter;
 import java.io.Reader;
 import java.net.HttpURLConnection;
 import java.net.URL;
 import java.net.URLConnection;
+import java.nio.file.Path;
 import java.time.Instant;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Base64;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Objects;
@@ -42,17 +43,21 @@ import java.util.stream.Stream;
  */
 public class JsonArray extends JsonNode implements Iterable<JsonNode> {
 
-    private final List<JsonNode> values;
+    private final ElementList values;
 
     /**
      * Creates an empty JsonArray
      */
     public JsonArray() {
-        values = new ArrayList<>();
+        values = new ElementList();
     }
 
     private JsonArray(List<? extends JsonNode> nodes) {
-        this.values = new ArrayList<>(nodes);
+        this.values = new ElementList(nodes);
+    }
+
+    private JsonArray(ElementList values) {
+        this.values = values;
     }
 
     /**
@@ -82,17 +87,29 @@ public class JsonArray extends JsonNode implements Iterable<JsonNode> {
      * @throws IllegalArgumentException if input not base64encoded
      */
     public static JsonArray parseFromBase64encodedString(String base64encodedJson) throws IllegalArgumentException {
-        return parse(new String(Base64.getUrlDecoder().decode(base64encodedJson)));
+        return asJsonArray(JsonParser.parse(Base64.getUrlDecoder().decode(base64encodedJson)));
     }
 
     /**
-     * Parse the InputStream as a JsonArray
+     * Parse the UTF-8 encoded InputStream as a JsonArray
      *
      * @throws JsonParseException if a JSON syntax error was encountered,
      *             or if the JSON was not a JsonArray
      */
     public static JsonArray read(InputStream inputStream) throws JsonParseException, IOException {
-        return read(new InputStreamReader(inputStream));
+        return asJsonArray(JsonParser.parse(inputStream));
+    }
+
+    /**
+     * Parse the UTF-8 encoded file as a JsonArray
+     *
+     * @throws JsonParseException if a JSON syntax error was encountered,
+     *             or if the JSON was not a JsonArray
+     * @throws IOException if there was an error reading the file
+     * @see JsonParser#parse(Path)
+     */
+    public static JsonArray read(Path path) throws JsonParseException, IOException {
+        return asJsonArray(JsonParser.parse(path));
     }
 
     /**
@@ -139,6 +156,38 @@ public class JsonArray extends JsonNode implements Iterable<JsonNode> {
         return new JsonArray(nodes);
     }
 
+    /**
+     * Creates a JsonArray of the numbers, which stores them in a <code>long[]</code>
+     * instead of as separate JsonNumbers
+     */
+    public static JsonArray ofLongs(long... values) {
+        return ofLongs(values, 0, values.length);
+    }
+
+    /**
+     * Creates a JsonArray of the numbers in the range <code>from</code>, inclusive,
+     * to <code>to</code>, exclusive, of the argument array
+     */
+    public static JsonArray ofLongs(long[] values, int from, int to) {
+        return new JsonArray(ElementList.ofLongs(Arrays.copyOfRange(values, from, to)));
+    }
+
+    /**
+     * Creates a JsonArray of the numbers, which stores them in a <code>double[]</code>
+     * instead of as separate JsonNumbers
+     */
+    public static JsonArray ofDoubles(double... values) {
+        return ofDoubles(values, 0, values.length);
+    }
+
+    /**
+     * Creates a JsonArray of the numbers in the range <code>from</code>, inclusive,
+     * to <code>to</code>, exclusive, of the argument array
+     */
+    public static JsonArray ofDoubles(double[] values, int from, int to) {
+        return new JsonArray(ElementList.ofDoubles(Arrays.copyOfRange(values, from, to)));
+    }
+
     /**
      * Collects the argument stream into a JsonArray
      */
@@ -213,6 +262,42 @@ public class JsonArray extends JsonNode implements Iterable<JsonNode> {
         return mapNodes(node -> asNumber(node).doubleValue());
     }
 
+    /**
+     * Returns all members of the array as a <code>long[]</code>. For arrays of numbers
+     * that were parsed or created with {@link #ofLongs}, this copies the values without
+     * converting them to JsonNumbers.
+     *
+     * @throws JsonConversionException if a member is not numeric
+     */
+    public long[] longArray() {
+        if (values.isPrimitive()) {
+            return values.toLongArray();
+        }
+        long[] result = new long[values.size()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = asNumber(values.get(i)).longValue();
+        }
+        return result;
+    }
+
+    /**
+     * Returns all members of the array as a <code>double[]</code>. For arrays of numbers
+     * that were parsed or created with {@link #ofDoubles}, this copies the values without
+     * converting them to JsonNumbers.
+     *
+     * @throws JsonConversionException if a member is not numeric
+     */
+    public double[] doubleArray() {
+        if (values.isPrimitive()) {
+            return values.toDoubleArray();
+        }
+        double[] result = new double[values.size()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = asNumber(values.get(i)).doubleValue();
+        }
+        return result;
+    }
+
     /**
      * If all members of the array are convertible to booleans, this method
      * returns them as doubles. Otherwise, it throws NumberFormatException
@@ -284,23 +369,62 @@ public class JsonArray extends JsonNode implements Iterable<JsonNode> {
     public void toJson(PrintWriter printWriter, String currentIntentation, String indentationAmount) {
         printWriter.append("[");
         if (!indentationAmount.isEmpty()) printWriter.append("\n");
-        for (Iterator<JsonNode> iterator = values.iterator(); iterator.hasNext();) {
-            JsonNode node = iterator.next();
+        for (int i = 0; i < values.size(); i++) {
             printWriter.write(currentIntentation + indentationAmount);
-            node.toJson(printWriter, currentIntentation + indentationAmount, indentationAmount);
+            values.toJson(i, printWriter, currentIntentation + indentationAmount, indentationAmount);
 
-            if (iterator.hasNext()) printWriter.append(",");
+            if (i < values.size() - 1) printWriter.append(",");
             if (!indentationAmount.isEmpty()) printWriter.append("\n");
         }
         printWriter.append(currentIntentation).append("]");
     }
 
     /**
-     * Creates a copy of this JsonArray with all the values copied
+     * Creates a copy of this JsonArray with all the values copied.
+     * The copy of a frozen JsonArray can be changed.
      */
     @Override
     public JsonArray deepClone() {
-        return new JsonArray(mapNodes(JsonNode::deepClone));
+        return new JsonArray(values.deepClone());
+    }
+
+    /**
+     * Returns a new version of this JsonArray with the value at the position replaced,
+     * and leaves this JsonArray unchanged. The new version is frozen, and shares
+     * its values with this JsonArray, which is frozen first if it is not already.
+     * Large arrays are stored in a tree of 32-element arrays, so each new version
+     * only copies the path to the changed position instead of the whole array.
+     *
+     * @throws IndexOutOfBoundsException if the index is out of range
+     *         (<code>index &lt; 0 || index &gt;= size()</code>)
+     * @see #freeze()
+     */
+    public JsonArray with(int i, Object o) {
+        return new JsonArray(values.with(i, JsonFactory.jsonNode(o).freeze()));
+    }
+
+    /**
+     * Returns a new version of this JsonArray with the value appended at the end,
+     * and leaves this JsonArray unchanged, like {@link #with(int, Object)}
+     */
+    public JsonArray withAdded(Object o) {
+        return new JsonArray(values.withAdded(JsonFactory.jsonNode(o).freeze()));
+    }
+
+    /**
+     * Makes this JsonArray and all its values immutable
+     *
+     * @see JsonNode#freeze()
+     */
+    @Override
+    public JsonArray freeze() {
+        values.freeze();
+        return this;
+    }
+
+    @Override
+    public boolean isFrozen() {
+        return values.isFrozen();
     }
 
     /**
@@ -359,6 +483,9 @@ public class JsonArray extends JsonNode implements Iterable<JsonNode> {
      * @throws JsonConversionException if the value at the position is not numeric
      */
     public long requiredLong(int pos) throws JsonConversionException {
+        if (values.isPrimitive() && pos >= 0 && pos < values.size()) {
+            return values.longAt(pos);
+        }
         return requiredNumber(pos).longValue();
     }
 
@@ -368,6 +495,9 @@ public class JsonArray extends JsonNode implements Iterable<JsonNode> {
      * @throws JsonConversionException if the value at the position is not numeric
      */
     public double requiredDouble(int pos) throws JsonConversionException {
+        if (values.isPrimitive() && pos >= 0 && pos < values.size()) {
+            return values.doubleAt(pos);
+        }
         return requiredNumber(pos).doubleValue();
     }
 
@@ -468,11 +598,18 @@ public class JsonArray extends JsonNode implements Iterable<JsonNode> {
 
     @Override
     public int hashCode() {
-        return Objects.hash(values);
+        return 31 + values.hashCode();
     }
 
+    /**
+     * Iterates over a copy of the values, so the JsonArray can be changed
+     * while iterating, or over the values directly if the JsonArray is frozen
+     */
     @Override
     public Iterator<JsonNode> iterator() {
+        if (values.isFrozen()) {
+            return Collections.unmodifiableList(values).iterator();
+        }
         return new ArrayList<>(values).iterator();
     }
 
@@ -4,12 +4,25 @@ import java.io.PrintWriter;
 import java.util.Objects;
 
 public class JsonBoolean extends JsonValue {
+
+    /** The shared instance for <code>true</code>, used by the parser and {@link JsonFactory} */
+    public static final JsonBoolean TRUE = new JsonBoolean(true);
+    /** The shared instance for <code>false</code>, used by the parser and {@link JsonFactory} */
+    public static final JsonBoolean FALSE = new JsonBoolean(false);
+
     private final boolean value;
 
     public JsonBoolean(boolean value) {
         this.value = value;
     }
 
+    /**
+     * Returns the shared instance for the value
+     */
+    public static JsonBoolean valueOf(boolean value) {
+        return value ? TRUE : FALSE;
+    }
+
     @Override
     public String stringValue() {
         return Boolean.toString(value);
@@ -25,15 +25,19 @@ public class JsonFactory {
     }
 
     public static JsonBoolean jsonTrue() {
-        return new JsonBoolean(true);
+        return JsonBoolean.TRUE;
     }
 
     public static JsonBoolean jsonFalse() {
-        return new JsonBoolean(false);
+        return JsonBoolean.FALSE;
     }
 
     public static JsonBoolean jsonBoolean(boolean value) {
-        return new JsonBoolean(value);
+        return JsonBoolean.valueOf(value);
+    }
+
+    public static JsonNull jsonNull() {
+        return JsonNull.NULL;
     }
 
     public static JsonString jsonInstant(Instant instant) {
@@ -61,7 +65,7 @@ public class JsonFactory {
         } else if (o instanceof Enum || o instanceof UUID || o instanceof URL) {
             return new JsonString(o.toString());
         } else if (o == null) {
-            return new JsonNull();
+            return jsonNull();
         } else {
             throw new IllegalArgumentException("Invalid JsonNode class " + o);
         }
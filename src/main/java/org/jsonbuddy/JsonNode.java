@@ -65,6 +65,26 @@ public abstract class JsonNode {
 
     public abstract JsonNode deepClone();
 
+    /**
+     * Makes this node and all nodes below it immutable, so it can be shared
+     * between threads and cached without {@link #deepClone()}. Changing a frozen
+     * JsonObject or JsonArray throws UnsupportedOperationException, and its hash
+     * code is only computed once. Values like strings and numbers are always
+     * immutable. Returns this node.
+     */
+    public JsonNode freeze() {
+        return this;
+    }
+
+    /**
+     * Returns true if this node can not be changed
+     *
+     * @see #freeze()
+     */
+    public boolean isFrozen() {
+        return true;
+    }
+
     /**
      * Check if this node is an array
      * @return true if this is a JsonArray, false otherwise
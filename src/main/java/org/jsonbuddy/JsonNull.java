@@ -3,6 +3,10 @@ package org.jsonbuddy;
 import java.io.PrintWriter;
 
 public class JsonNull extends JsonValue {
+
+    /** The shared instance, used by the parser and {@link JsonFactory} */
+    public static final JsonNull NULL = new JsonNull();
+
     public JsonNull() {
     }
 
@@ -14,9 +14,17 @@ public class JsonNumber extends JsonValue {
         this.value = value;
     }
 
+    /**
+     * For subclasses that convert the number when it is first used. They
+     * must override {@link #javaObjectValue()}, which all other methods use.
+     */
+    protected JsonNumber() {
+        this.value = null;
+    }
+
     @Override
     public String stringValue() {
-        return value.toString();
+        return javaObjectValue().toString();
     }
 
     @Override
@@ -35,27 +43,27 @@ public class JsonNumber extends JsonValue {
     }
 
     public long longValue() {
-        return value.longValue();
+        return javaObjectValue().longValue();
     }
 
     public int intValue() {
-        return value.intValue();
+        return javaObjectValue().intValue();
     }
 
     public byte byteValue() {
-        return value.byteValue();
+        return javaObjectValue().byteValue();
     }
 
     public short shortValue() {
-        return value.shortValue();
+        return javaObjectValue().shortValue();
     }
 
     public float floatValue() {
-        return value.floatValue();
+        return javaObjectValue().floatValue();
     }
 
     public double doubleValue() {
-        return value.doubleValue();
+        return javaObjectValue().doubleValue();
     }
 
     @Override
@@ -63,11 +71,11 @@ public class JsonNumber extends JsonValue {
         if (this == o) return true;
         if (!(o instanceof JsonNumber)) return false;
         JsonNumber jsonLong = (JsonNumber) o;
-        return Objects.equals(value, jsonLong.value);
+        return Objects.equals(javaObjectValue(), jsonLong.javaObjectValue());
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(value);
+        return Objects.hash(javaObjectValue());
     }
 }
@@ -6,25 +6,20 @@ import org.jsonbuddy.parse.JsonParser;
 
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.InputStreamReader;
 import java.io.PrintWriter;
 import java.io.Reader;
 import java.net.HttpURLConnection;
 import java.net.URL;
 import java.net.URLConnection;
+import java.nio.file.Path;
 import java.time.Instant;
 import java.time.format.DateTimeParseException;
 import java.util.Base64;
-import java.util.HashMap;
-import java.util.Iterator;
-import java.util.LinkedHashMap;
-import java.util.Map;
-import java.util.Map.Entry;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
 import java.util.function.Supplier;
-import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * JsonObject represents a dictionary of values that can be looked up
@@ -51,16 +46,16 @@ import java.util.stream.Collectors;
  */
 public class JsonObject extends JsonNode {
 
-    private final Map<String,JsonNode> values;
+    private final MemberMap values;
 
     /**
      * Creates an empty JsonObject
      */
     public JsonObject() {
-        this.values = new LinkedHashMap<>();
+        this.values = new CompactMap();
     }
 
-    private JsonObject(Map<String,JsonNode> values) {
+    private JsonObject(MemberMap values) {
         this.values = values;
     }
 
@@ -91,17 +86,54 @@ public class JsonObject extends JsonNode {
      * @throws IllegalArgumentException if input not base64encoded
      */
     public static JsonObject parseFromBase64encodedString(String base64encodedJson) throws IllegalArgumentException {
-        return parse(new String(Base64.getUrlDecoder().decode(base64encodedJson)));
+        return asJsonObject(JsonParser.parse(Base64.getUrlDecoder().decode(base64encodedJson)));
     }
 
     /**
-     * Parse the InputStream as a JsonObject
+     * Parse the UTF-8 encoded InputStream as a JsonObject
      *
      * @throws JsonParseException if a JSON syntax error was encountered,
      *             or if the JSON was not a JsonObject
      */
     public static JsonObject read(InputStream inputStream) throws JsonParseException, IOException {
-        return read(new InputStreamReader(inputStream));
+        return asJsonObject(JsonParser.parse(inputStream));
+    }
+
+    /**
+     * Parse the UTF-8 encoded file as a JsonObject
+     *
+     * @throws JsonParseException if a JSON syntax error was encountered,
+     *             or if the JSON was not a JsonObject
+     * @throws IOException if there was an error reading the file
+     * @see JsonParser#parse(Path)
+     */
+    public static JsonObject read(Path path) throws JsonParseException, IOException {
+        return asJsonObject(JsonParser.parse(path));
+    }
+
+    /**
+     * Parse newline-delimited JSON from the UTF-8 encoded InputStream as a
+     * stream of JsonObjects, one per line. The InputStream is not closed.
+     *
+     * @throws JsonParseException when a record with a JSON syntax error or a
+     *             record that is not a JsonObject is reached
+     * @see JsonParser#lines(InputStream)
+     */
+    public static Stream<JsonObject> readLines(InputStream inputStream) {
+        return JsonParser.lines(inputStream).map(JsonObject::asJsonObject);
+    }
+
+    /**
+     * Parse the newline-delimited JSON file as a stream of JsonObjects, one per
+     * line. The stream can be parallel and must be closed to release the file.
+     *
+     * @throws JsonParseException when a record with a JSON syntax error or a
+     *             record that is not a JsonObject is reached
+     * @throws IOException if the file could not be opened
+     * @see JsonParser#lines(Path)
+     */
+    public static Stream<JsonObject> readLines(Path path) throws IOException {
+        return JsonParser.lines(path).map(JsonObject::asJsonObject);
     }
 
     /**
@@ -386,21 +418,21 @@ public class JsonObject extends JsonNode {
     public void toJson(PrintWriter printWriter, String currentIntentation, String indentationAmount) {
         printWriter.append("{");
         if (!indentationAmount.isEmpty()) printWriter.append("\n");
-        for (Iterator<Entry<String, JsonNode>> iterator = values.entrySet().iterator(); iterator.hasNext();) {
-            Map.Entry<String,JsonNode> entry = iterator.next();
+        int[] position = { 0 };
+        values.forEach((key, value) -> {
             printWriter.append(currentIntentation);
             printWriter.append(indentationAmount);
             printWriter.append('"');
-            printWriter.append(entry.getKey());
+            printWriter.append(key);
             printWriter.append("\":");
-            entry.getValue().toJson(printWriter, currentIntentation + indentationAmount, indentationAmount);
+            value.toJson(printWriter, currentIntentation + indentationAmount, indentationAmount);
 
-            if (iterator.hasNext()) {
+            if (++position[0] < values.size()) {
                 printWriter.append(",");
             }
 
             if (!indentationAmount.isEmpty()) printWriter.append("\n");
-        }
+        });
         printWriter.append(currentIntentation);
         printWriter.append("}");
     }
@@ -438,14 +470,58 @@ public class JsonObject extends JsonNode {
     }
 
     /**
-     * Creates a copy of this JsonObject with all the values copied
+     * Creates a copy of this JsonObject with all the values copied.
+     * The copy of a frozen JsonObject can be changed.
      */
     @Override
     public JsonObject deepClone() {
-        Map<String, JsonNode> cloned = values.entrySet().stream()
-                .collect(Collectors.toMap(Entry::getKey, entry -> entry.getValue().deepClone()));
-        Map<String, JsonNode> newValues = new HashMap<>(cloned);
-        return new JsonObject(newValues);
+        return new JsonObject(values.deepClone());
+    }
+
+    /**
+     * Returns a new version of this JsonObject with the key set to the value, and
+     * leaves this JsonObject unchanged. The new version is frozen, and shares its
+     * values with this JsonObject, which is frozen first if it is not already.
+     * Large objects are stored in a hash array mapped trie, so each new version
+     * only copies the path to the changed key instead of the whole object. This
+     * makes it cheap to keep many versions of a large document:
+     *
+     * <pre>
+     * JsonObject v2 = v1.with("timeout", 30).without("retries");
+     * </pre>
+     *
+     * @throws IllegalArgumentException if the value cannot be represented as JSON
+     * @see #freeze()
+     */
+    public JsonObject with(String key, Object value) {
+        Objects.requireNonNull(key, "key");
+        return new JsonObject(values.with(key, JsonFactory.jsonNode(value).freeze()));
+    }
+
+    /**
+     * Returns a new version of this JsonObject without the key, and leaves this
+     * JsonObject unchanged. Like {@link #with}, the new version is frozen and
+     * shares its values with this JsonObject.
+     */
+    public JsonObject without(String key) {
+        MemberMap result = values.without(key);
+        return result == values ? this : new JsonObject(result);
+    }
+
+    /**
+     * Makes this JsonObject and all its values immutable
+     *
+     * @see JsonNode#freeze()
+     */
+    @Override
+    public JsonObject freeze() {
+        values.freeze();
+        return this;
+    }
+
+    @Override
+    public boolean isFrozen() {
+        return values.isFrozen();
     }
 
     /**
@@ -462,7 +538,7 @@ public class JsonObject extends JsonNode {
 
     @Override
     public int hashCode() {
-        return Objects.hash(values);
+        return 31 + values.hashCode();
     }
 
     /**
@@ -12,6 +12,14 @@ public class JsonString extends JsonValue {
         this.value = value;
     }
 
+    /**
+     * For subclasses that decode the string when it is first used. They
+     * must override {@link #stringValue()}, which all other methods use.
+     */
+    protected JsonString() {
+        this.value = null;
+    }
+
     @Override
     public String stringValue() {
         return value;
@@ -19,13 +27,13 @@ public class JsonString extends JsonValue {
 
     @Override
     public Object javaObjectValue() {
-        return value;
+        return stringValue();
     }
 
     @Override
     public void toJson(PrintWriter printWriter, String currentIntentation, String indentationAmount) {
         printWriter.append("\"");
-        StringBuilder val = new StringBuilder(value);
+        StringBuilder val = new StringBuilder(stringValue());
         replace(val,'\\',"\\");
         replace(val,'\n',"n");
         replace(val,'"',"\"");
@@ -59,15 +67,15 @@ public class JsonString extends JsonValue {
         if (this == o) return true;
         if (!(o instanceof JsonString)) return false;
         JsonString that = (JsonString) o;
-        return Objects.equals(value, that.value);
+        return Objects.equals(stringValue(), that.stringValue());
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(value);
+        return Objects.hash(stringValue());
     }
 
     public Instant instantValue() {
-        return Instant.parse(value);
+        return Instant.parse(stringValue());
     }
 }
@@ -0,0 +1,43 @@
+package org.jsonbuddy;
+
+import java.util.AbstractMap;
+import java.util.function.BiConsumer;
+
+/**
+ * The storage of the members of a {@link JsonObject}: a {@link CompactMap},
+ * which can be changed until it is frozen, or a {@link TrieMap}, which is
+ * immutable and is changed by creating new versions with {@link #with}
+ * and {@link #without}.
+ */
+abstract class MemberMap extends AbstractMap<String, JsonNode> {
+
+    /**
+     * Returns a map that can be changed, with a deep clone of every value
+     */
+    abstract CompactMap deepClone();
+
+    /**
+     * Makes this map and all its values immutable
+     */
+    abstract void freeze();
+
+    abstract boolean isFrozen();
+
+    /**
+     * Returns a frozen map with the key set to the value, which shares the
+     * values with this map. Freezes this map.
+     */
+    abstract MemberMap with(String key, JsonNode value);
+
+    /**
+     * Returns a frozen map without the key, which shares the values with
+     * this map. Freezes this map.
+     */
+    abstract MemberMap without(String key);
+
+    /**
+     * Calls the action for each member in insertion order, without creating entries
+     */
+    @Override
+    public abstract void forEach(BiConsumer<? super String, ? super JsonNode> action);
+}
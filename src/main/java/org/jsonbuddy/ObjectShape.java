@@ -0,0 +1,245 @@
+package org.jsonbuddy;
+
+import java.lang.ref.WeakReference;
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * The keys of a {@link JsonObject} in insertion order, separate from its
+ * values. Objects with the same keys in the same order, like the elements of
+ * an array of records, share one shape, and only store their own values.
+ * <p>
+ * Shared shapes are immutable and form a tree that starts with {@link #EMPTY}:
+ * adding a key to an object moves it to the shape for its keys plus the new key,
+ * which is created the first time and then found among the transitions of its
+ * parent. Removing a key moves the object to the shape for its remaining keys.
+ * <p>
+ * The tree does not grow without limit when objects have unusual keys, like
+ * objects keyed by IDs. A shape refers to its transitions weakly, so shapes
+ * that are no longer used by any object are garbage collected, and the
+ * transitions of a shape are a hash table with a bounded size, 4096 for
+ * {@link #EMPTY} and 64 for other shapes, where a new transition replaces an
+ * old one when the table is full. A shape refers to its parent, so the path
+ * to a shape that is in use stays in the tree, and a layout that is
+ * replaced is only shared again among the objects created after it.
+ * Shapes with more than 64 keys are private to one object and are changed
+ * in place.
+ */
+final class ObjectShape {
+
+    static final int LINEAR_SCAN_LIMIT = 8;
+
+    private static final int MAX_SHARED_KEYS = 64;
+    private static final int MAX_TRANSITIONS = 64;
+    private static final int MAX_ROOT_TRANSITIONS = 4096;
+    /** The number of slots that are searched for a transition, from the slot for the hash of its key */
+    private static final int MAX_PROBES = 8;
+
+    static final ObjectShape EMPTY = new ObjectShape(new String[0], 0, true, null);
+
+    private String[] keys;
+    private int size;
+    private final boolean shared;
+    /** Keeps the shapes on the path to this shape from being garbage collected */
+    private final ObjectShape parent;
+    /** Position + 1 of the key for each slot, 0 for empty slots, or null for small shapes */
+    private int[] index;
+    /** A hash table of the shared shapes with one more key, replaced when changed */
+    private volatile WeakReference<ObjectShape>[] transitions;
+
+    private ObjectShape(String[] keys, int size, boolean shared, ObjectShape parent) {
+        this.keys = keys;
+        this.size = size;
+        this.shared = shared;
+        this.parent = parent;
+        if (size > LINEAR_SCAN_LIMIT) {
+            rebuildIndex();
+        }
+    }
+
+    int size() {
+        return size;
+    }
+
+    String keyAt(int position) {
+        return keys[position];
+    }
+
+    /**
+     * Returns the position of the key, or -1 if the shape does not have the key
+     */
+    int positionOf(Object key) {
+        int[] index = this.index;
+        if (index == null) {
+            for (int i = 0; i < size; i++) {
+                if (Objects.equals(keys[i], key)) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+        int mask = index.length - 1;
+        for (int slot = hash(key) & mask; index[slot] != 0; slot = (slot + 1) & mask) {
+            int position = index[slot] - 1;
+            if (Objects.equals(keys[position], key)) {
+                return position;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the shape with the key added at the end, which is this shape
+     * changed in place if it is not shared. The key must not be in this shape.
+     */
+    ObjectShape with(String key) {
+        if (!shared) {
+            if (size == keys.length) {
+                keys = Arrays.copyOf(keys, Math.max(4, size + (size >> 1)));
+            }
+            keys[size++] = key;
+            if (index != null && size * 2 <= index.length) {
+                insertIntoIndex(key, size - 1);
+            } else if (size > LINEAR_SCAN_LIMIT) {
+                rebuildIndex();
+            }
+            return this;
+        }
+        if (size >= MAX_SHARED_KEYS) {
+            String[] newKeys = Arrays.copyOf(keys, Math.max(4, size + 1 + (size >> 1)));
+            newKeys[size] = key;
+            return new ObjectShape(newKeys, size + 1, false, null);
+        }
+        ObjectShape transition = findTransition(transitions, key);
+        return transition != null ? transition : addTransition(key);
+    }
+
+    private ObjectShape findTransition(WeakReference<ObjectShape>[] table, String key) {
+        if (table == null) {
+            return null;
+        }
+        int mask = table.length - 1;
+        int slot = hash(key) & mask;
+        for (int i = 0; i < MAX_PROBES && i < table.length; i++, slot = (slot + 1) & mask) {
+            ObjectShape transition = table[slot] != null ? table[slot].get() : null;
+            if (transition != null) {
+                String lastKey = transition.keys[size];
+                if (lastKey == key || Objects.equals(lastKey, key)) {
+                    return transition;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Adds a transition to a free slot, or to a slot whose shape has been garbage
+     * collected, among the slots for the key. If there are none, the table is grown
+     * up to its maximum size, and after that, the transition replaces the first of them.
+     */
+    private synchronized ObjectShape addTransition(String key) {
+        WeakReference<ObjectShape>[] table = this.transitions;
+        ObjectShape existing = findTransition(table, key);
+        if (existing != null) {
+            return existing;
+        }
+        String[] newKeys = Arrays.copyOf(keys, size + 1);
+        newKeys[size] = key;
+        ObjectShape transition = new ObjectShape(newKeys, size + 1, true, this);
+        WeakReference<ObjectShape>[] newTable = table != null ? table.clone() : newTable(4);
+        while (!insert(newTable, transition, false)) {
+            if (newTable.length >= (this == EMPTY ? MAX_ROOT_TRANSITIONS : MAX_TRANSITIONS)) {
+                insert(newTable, transition, true);
+                break;
+            }
+            newTable = rehash(newTable, newTable.length * 2);
+        }
+        this.transitions = newTable;
+        return transition;
+    }
+
+    private boolean insert(WeakReference<ObjectShape>[] table, ObjectShape transition, boolean replace) {
+        int mask = table.length - 1;
+        int slot = hash(transition.keys[size]) & mask;
+        if (replace) {
+            table[slot] = new WeakReference<>(transition);
+            return true;
+        }
+        for (int i = 0; i < MAX_PROBES && i < table.length; i++, slot = (slot + 1) & mask) {
+            if (table[slot] == null || table[slot].get() == null) {
+                table[slot] = new WeakReference<>(transition);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private WeakReference<ObjectShape>[] rehash(WeakReference<ObjectShape>[] table, int length) {
+        WeakReference<ObjectShape>[] newTable = newTable(length);
+        for (WeakReference<ObjectShape> reference : table) {
+            ObjectShape transition = reference != null ? reference.get() : null;
+            if (transition != null) {
+                insert(newTable, transition, false);
+            }
+        }
+        return newTable;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static WeakReference<ObjectShape>[] newTable(int length) {
+        return (WeakReference<ObjectShape>[]) new WeakReference<?>[length];
+    }
+
+    /**
+     * Returns the shape without the key at the position, which is this shape
+     * changed in place if it is not shared
+     */
+    ObjectShape without(int position) {
+        if (shared) {
+            ObjectShape shape = EMPTY;
+            for (int i = 0; i < size; i++) {
+                if (i != position) {
+                    shape = shape.with(keys[i]);
+                }
+            }
+            return shape;
+        }
+        System.arraycopy(keys, position + 1, keys, position, size - position - 1);
+        keys[--size] = null;
+        if (size > LINEAR_SCAN_LIMIT) {
+            rebuildIndex();
+        } else {
+            index = null;
+        }
+        return this;
+    }
+
+    /**
+     * Returns a shape with the same keys for another object: this shape if it is
+     * shared, otherwise a private copy
+     */
+    ObjectShape copy() {
+        return shared ? this : new ObjectShape(Arrays.copyOf(keys, size), size, false, null);
+    }
+
+    private void rebuildIndex() {
+        index = new int[Integer.highestOneBit(size * 4 - 1)];
+        for (int i = 0; i < size; i++) {
+            insertIntoIndex(keys[i], i);
+        }
+    }
+
+    private void insertIntoIndex(String key, int position) {
+        int mask = index.length - 1;
+        int slot = hash(key) & mask;
+        while (index[slot] != 0) {
+            slot = (slot + 1) & mask;
+        }
+        index[slot] = position + 1;
+    }
+
+    private static int hash(Object key) {
+        int hash = Objects.hashCode(key);
+        return hash ^ (hash >>> 16);
+    }
+}
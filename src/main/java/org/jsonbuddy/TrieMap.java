@@ -0,0 +1,185 @@
+package org.jsonbuddy;
+
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.function.BiConsumer;
+
+/**
+ * The immutable storage of the members of a large {@link JsonObject} that
+ * is changed by creating new versions, like a configuration document where
+ * each version changes a few keys. The members are kept in insertion order in
+ * a {@link PersistentVector}, and a {@link HashTrie} maps each key to its
+ * position in the vector, so a new version with a changed, added or removed
+ * key shares everything except one path in each of them with the old version.
+ * <p>
+ * A removed member leaves an empty position in the vector, and the vector is
+ * rebuilt when more than half of its positions are empty.
+ */
+final class TrieMap extends MemberMap {
+
+    /** The smallest objects that are stored in a TrieMap, as smaller objects are cheaper to copy */
+    static final int MIN_SIZE = 32;
+
+    private final HashTrie positions;
+    private final PersistentVector<Entry<String, JsonNode>> members;
+    private int hashCode;
+
+    private TrieMap(HashTrie positions, PersistentVector<Entry<String, JsonNode>> members) {
+        this.positions = positions;
+        this.members = members;
+    }
+
+    /**
+     * Creates a TrieMap with the members of the map, in the same order
+     */
+    static TrieMap of(MemberMap map) {
+        HashTrie positions = HashTrie.EMPTY;
+        PersistentVector<Entry<String, JsonNode>> members = PersistentVector.empty();
+        for (Entry<String, JsonNode> entry : map.entrySet()) {
+            positions = positions.with(entry.getKey(), members.size());
+            members = members.append(new SimpleImmutableEntry<>(entry.getKey(), entry.getValue()));
+        }
+        return new TrieMap(positions, members);
+    }
+
+    @Override
+    public int size() {
+        return positions.size();
+    }
+
+    @Override
+    public JsonNode get(Object key) {
+        Integer position = key instanceof String ? (Integer) positions.get((String) key) : null;
+        return position != null ? members.get(position).getValue() : null;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return key instanceof String && positions.get((String) key) != null;
+    }
+
+    @Override
+    public JsonNode put(String key, JsonNode value) {
+        throw frozen();
+    }
+
+    @Override
+    public JsonNode remove(Object key) {
+        throw frozen();
+    }
+
+    @Override
+    public void clear() {
+        throw frozen();
+    }
+
+    private static UnsupportedOperationException frozen() {
+        return new UnsupportedOperationException("A frozen JsonObject can not be changed");
+    }
+
+    @Override
+    TrieMap with(String key, JsonNode value) {
+        Entry<String, JsonNode> member = new SimpleImmutableEntry<>(key, value);
+        Integer position = (Integer) positions.get(key);
+        if (position != null) {
+            return new TrieMap(positions, members.set(position, member));
+        }
+        return new TrieMap(positions.with(key, members.size()), members.append(member));
+    }
+
+    @Override
+    TrieMap without(String key) {
+        Integer position = (Integer) positions.get(key);
+        if (position == null) {
+            return this;
+        }
+        TrieMap result = new TrieMap(positions.without(key), members.set(position, null));
+        return result.size() * 2 < result.members.size() ? of(result) : result;
+    }
+
+    @Override
+    CompactMap deepClone() {
+        CompactMap clone = new CompactMap();
+        forEach((key, value) -> clone.put(key, value.deepClone()));
+        return clone;
+    }
+
+    /**
+     * Does nothing, as a TrieMap and its values are always frozen
+     */
+    @Override
+    void freeze() {
+    }
+
+    @Override
+    boolean isFrozen() {
+        return true;
+    }
+
+    @Override
+    public void forEach(BiConsumer<? super String, ? super JsonNode> action) {
+        for (Entry<String, JsonNode> member : members) {
+            if (member != null) {
+                action.accept(member.getKey(), member.getValue());
+            }
+        }
+    }
+
+    /**
+     * The same as {@link java.util.Map#hashCode()}, computed only once
+     */
+    @Override
+    public int hashCode() {
+        int hashCode = this.hashCode;
+        if (hashCode == 0) {
+            hashCode = super.hashCode();
+            this.hashCode = hashCode;
+        }
+        return hashCode;
+    }
+
+    @Override
+    public Set<Entry<String, JsonNode>> entrySet() {
+        return new AbstractSet<Entry<String, JsonNode>>() {
+            @Override
+            public Iterator<Entry<String, JsonNode>> iterator() {
+                Iterator<Entry<String, JsonNode>> iterator = members.iterator();
+                return new Iterator<Entry<String, JsonNode>>() {
+                    private Entry<String, JsonNode> next = advance();
+
+                    private Entry<String, JsonNode> advance() {
+                        while (iterator.hasNext()) {
+                            Entry<String, JsonNode> member = iterator.next();
+                            if (member != null) {
+                                return member;
+                            }
+                        }
+                        return null;
+                    }
+
+                    @Override
+                    public boolean hasNext() {
+                        return next != null;
+                    }
+
+                    @Override
+                    public Entry<String, JsonNode> next() {
+                        if (next == null) {
+                            throw new NoSuchElementException();
+                        }
+                        Entry<String, JsonNode> result = next;
+                        next = advance();
+                        return result;
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return positions.size();
+            }
+        };
+    }
+}
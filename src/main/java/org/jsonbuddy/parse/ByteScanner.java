@@ -0,0 +1,141 @@
+package org.jsonbuddy.parse;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Searches UTF-8 bytes for the characters that end a run of plain string
+ * contents, eight bytes at a time. Each step reads a long and uses
+ * SIMD-within-a-register arithmetic to test all its bytes at once, and the
+ * last few bytes of the range are checked one at a time.
+ */
+final class ByteScanner {
+
+    private static final VarHandle LONGS = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+
+    private static final long ONES = 0x0101010101010101L;
+    private static final long HIGH_BITS = 0x8080808080808080L;
+    private static final long QUOTES = ONES * '"';
+    private static final long BACKSLASHES = ONES * '\\';
+    private static final long SPACES = ONES * ' ';
+
+    private ByteScanner() {
+    }
+
+    /**
+     * Returns the position of the first <code>"</code> or <code>\</code> in
+     * <code>bytes[from..to)</code>, or <code>to</code> if there is none
+     */
+    static int indexOfQuoteOrBackslash(byte[] bytes, int from, int to) {
+        int i = from;
+        for (; i + Long.BYTES <= to; i += Long.BYTES) {
+            long word = (long) LONGS.get(bytes, i);
+            long found = zeroBytes(word ^ QUOTES) | zeroBytes(word ^ BACKSLASHES);
+            if (found != 0) {
+                return i + (Long.numberOfTrailingZeros(found) >>> 3);
+            }
+        }
+        for (; i < to; i++) {
+            if (bytes[i] == '"' || bytes[i] == '\\') {
+                return i;
+            }
+        }
+        return to;
+    }
+
+    /**
+     * Returns the position of the first <code>"</code>, <code>\</code> or
+     * non-ASCII byte in <code>bytes[from..to)</code>, or <code>to</code> if there is none
+     */
+    static int indexOfQuoteBackslashOrNonAscii(byte[] bytes, int from, int to) {
+        int i = from;
+        for (; i + Long.BYTES <= to; i += Long.BYTES) {
+            long word = (long) LONGS.get(bytes, i);
+            long found = (word & HIGH_BITS) | zeroBytes(word ^ QUOTES) | zeroBytes(word ^ BACKSLASHES);
+            if (found != 0) {
+                return i + (Long.numberOfTrailingZeros(found) >>> 3);
+            }
+        }
+        for (; i < to; i++) {
+            byte b = bytes[i];
+            if (b < 0 || b == '"' || b == '\\') {
+                return i;
+            }
+        }
+        return to;
+    }
+
+    /**
+     * Returns the position of the first <code>"</code>, <code>\</code>, control
+     * character or non-ASCII byte in <code>bytes[from..to)</code>, or <code>to</code>
+     * if there is none
+     */
+    static int indexOfSpecialByte(byte[] bytes, int from, int to) {
+        int i = from;
+        for (; i + Long.BYTES <= to; i += Long.BYTES) {
+            long word = (long) LONGS.get(bytes, i);
+            long found = (word & HIGH_BITS) | ((word - SPACES) & ~word & HIGH_BITS)
+                    | zeroBytes(word ^ QUOTES) | zeroBytes(word ^ BACKSLASHES);
+            if (found != 0) {
+                return i + (Long.numberOfTrailingZeros(found) >>> 3);
+            }
+        }
+        for (; i < to; i++) {
+            byte b = bytes[i];
+            if (b < ' ' || b == '"' || b == '\\') {
+                return i;
+            }
+        }
+        return to;
+    }
+
+    /**
+     * Returns the position of the closing quote of a string whose contents start at
+     * <code>from</code>, or <code>to</code> if the string is not closed. Escape
+     * sequences are skipped and checked.
+     *
+     * @throws JsonParseException if an escape sequence is incomplete or not a valid unicode escape
+     */
+    static int indexOfStringEnd(byte[] bytes, int from, int to) {
+        int pos = indexOfQuoteOrBackslash(bytes, from, to);
+        while (pos < to && bytes[pos] == '\\') {
+            pos = indexOfQuoteOrBackslash(bytes, skipEscape(bytes, pos, to) + 1, to);
+        }
+        return pos;
+    }
+
+    /**
+     * Validates the escape sequence at the backslash and returns the position
+     * of its last character
+     *
+     * @throws JsonParseException if the escape sequence is incomplete or not a valid unicode escape
+     */
+    static int skipEscape(byte[] bytes, int pos, int to) {
+        if (pos + 1 == to) {
+            throw new JsonParseException("JsonString not closed. Ended in escape sequence");
+        }
+        if (bytes[pos + 1] != 'u') {
+            return pos + 1;
+        }
+        if (pos + 6 > to) {
+            throw new JsonParseException("JsonString not closed. Ended in escape sequence");
+        }
+        for (int i = pos + 2; i < pos + 6; i++) {
+            if (Character.digit((char) bytes[i], 16) < 0) {
+                throw new JsonParseException("Illegal unicode sequence "
+                        + new String(bytes, pos + 2, 4, StandardCharsets.ISO_8859_1));
+            }
+        }
+        return pos + 5;
+    }
+
+    /**
+     * Sets the high bit of the zero bytes in the word. Bytes above the first zero byte
+     * may be marked wrongly, so only the lowest mark is reliable.
+     */
+    private static long zeroBytes(long word) {
+        return (word - ONES) & ~word & HIGH_BITS;
+    }
+}
@@ -0,0 +1,138 @@
+package org.jsonbuddy.parse;
+
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * Lexer that reads blocks from a Reader into a reusable char[] and
+ * scans them by index. While not finished, {@link #lastRead} is
+ * always <code>buffer[pos - 1]</code>.
+ */
+class CharLexer extends JsonLexer {
+
+    private static final int BUFFER_SIZE = 8192;
+
+    private Reader reader;
+    private final char[] buffer = new char[BUFFER_SIZE];
+    private int pos;
+    private int limit;
+    private long bufferStart;
+
+    CharLexer(Reader reader) {
+        this.reader = reader;
+    }
+
+    /**
+     * Starts reading from another Reader, keeping the buffer
+     */
+    void reset(Reader reader) {
+        this.reader = reader;
+        pos = 0;
+        limit = 0;
+        bufferStart = 0;
+        reset();
+    }
+
+    @Override
+    void readNext() throws IOException {
+        if (pos < limit) {
+            lastRead = buffer[pos++];
+            return;
+        }
+        fill();
+    }
+
+    private void fill() throws IOException {
+        int read;
+        do {
+            read = reader.read(buffer, 0, buffer.length);
+        } while (read == 0);
+        if (read == -1) {
+            finished = true;
+            return;
+        }
+        bufferStart += limit;
+        limit = read;
+        lastRead = buffer[0];
+        pos = 1;
+    }
+
+    @Override
+    long position() {
+        return bufferStart + pos - (finished ? 0 : 1);
+    }
+
+    /**
+     * Copies runs of plain characters directly from the buffer, only
+     * stepping character by character for escape sequences and refills.
+     * A string that ends in the buffer without an escape sequence is
+     * created with a single copy from the buffer.
+     */
+    @Override
+    String readText() throws IOException {
+        return readText(null);
+    }
+
+    @Override
+    String readKey() throws IOException {
+        return readText(keyCache);
+    }
+
+    @Override
+    void skipText() throws IOException {
+        while (!finished) {
+            int end = pos - 1;
+            while (end < limit && buffer[end] != '"' && buffer[end] != '\\') {
+                end++;
+            }
+            if (end == limit) {
+                pos = limit;
+                readNext();
+                continue;
+            }
+            pos = end + 1;
+            lastRead = buffer[end];
+            if (lastRead == '"') {
+                return;
+            }
+            readEscape();
+            readNext();
+        }
+        throw new JsonParseException("JsonString not closed. Expected \"");
+    }
+
+    private String readText(JsonKeyCache cache) throws IOException {
+        StringBuilder res = scratch();
+        while (!finished) {
+            int start = pos - 1;
+            int end = start;
+            while (end < limit && buffer[end] != '"' && buffer[end] != '\\') {
+                end++;
+            }
+            if (end < limit && buffer[end] == '"' && res.length() == 0) {
+                pos = end + 1;
+                lastRead = '"';
+                return cache != null
+                        ? cache.get(buffer, start, end - start)
+                        : new String(buffer, start, end - start);
+            }
+            res.append(buffer, start, end - start);
+            if (end == limit) {
+                pos = limit;
+                readNext();
+                continue;
+            }
+            pos = end + 1;
+            lastRead = buffer[end];
+            if (lastRead == '"') {
+                return res.toString();
+            }
+            int escaped = readEscape();
+            if (escaped >= 0) {
+                res.append((char) escaped);
+            }
+            readNext();
+        }
+        throw new JsonParseException("JsonString not closed. Expected \"");
+    }
+}
@@ -0,0 +1,127 @@
+package org.jsonbuddy.parse;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * A bounded cache of object keys, so that the keys that are repeated in
+ * every element of a large array are only created once. The parser looks
+ * up the raw bytes or chars of each key that has no escape sequences and
+ * gets back a canonical String, without creating a new String when the key
+ * has been seen before.
+ * <p>
+ * The cache is a fixed size table where each key has one slot chosen by its
+ * hash, and a new key replaces whatever was in its slot. It never grows, and
+ * lookups need no locking, so one cache can be shared by parsers on
+ * many threads. By default, all parsers share {@link #shared()}. Use
+ * {@link JsonReader#setKeyCache} to give a parser its own cache, or to
+ * turn caching off.
+ */
+public class JsonKeyCache {
+
+    private static final int MAX_KEY_LENGTH = 64;
+
+    private static final JsonKeyCache SHARED = new JsonKeyCache(1024);
+
+    private final ByteEntry[] byteEntries;
+    private final CharEntry[] charEntries;
+    private final int mask;
+
+    /**
+     * Creates a cache with room for about <code>capacity</code> keys
+     */
+    public JsonKeyCache(int capacity) {
+        int size = Integer.highestOneBit(Math.max(16, capacity - 1) << 1);
+        this.byteEntries = new ByteEntry[size];
+        this.charEntries = new CharEntry[size];
+        this.mask = size - 1;
+    }
+
+    /**
+     * The cache that is used by parsers unless another cache is set
+     */
+    public static JsonKeyCache shared() {
+        return SHARED;
+    }
+
+    /**
+     * Returns the key that is encoded as UTF-8 in <code>bytes[offset..offset+length)</code>
+     */
+    String get(byte[] bytes, int offset, int length) {
+        if (length > MAX_KEY_LENGTH) {
+            return new String(bytes, offset, length, StandardCharsets.UTF_8);
+        }
+        int hash = 0;
+        for (int i = offset; i < offset + length; i++) {
+            hash = 31 * hash + bytes[i];
+        }
+        int slot = spread(hash) & mask;
+        ByteEntry entry = byteEntries[slot];
+        if (entry != null && entry.hash == hash
+                && Arrays.equals(entry.bytes, 0, entry.bytes.length, bytes, offset, offset + length)) {
+            return entry.key;
+        }
+        String key = new String(bytes, offset, length, StandardCharsets.UTF_8);
+        byteEntries[slot] = new ByteEntry(hash, Arrays.copyOfRange(bytes, offset, offset + length), key);
+        return key;
+    }
+
+    /**
+     * Returns the key in <code>chars[offset..offset+length)</code>
+     */
+    String get(char[] chars, int offset, int length) {
+        if (length > MAX_KEY_LENGTH) {
+            return new String(chars, offset, length);
+        }
+        int hash = 0;
+        for (int i = offset; i < offset + length; i++) {
+            hash = 31 * hash + chars[i];
+        }
+        int slot = spread(hash) & mask;
+        CharEntry entry = charEntries[slot];
+        if (entry != null && entry.hash == hash && matches(entry.key, chars, offset, length)) {
+            return entry.key;
+        }
+        String key = new String(chars, offset, length);
+        charEntries[slot] = new CharEntry(hash, key);
+        return key;
+    }
+
+    private static boolean matches(String key, char[] chars, int offset, int length) {
+        if (key.length() != length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (key.charAt(i) != chars[offset + i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int spread(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+
+    private static class ByteEntry {
+        private final int hash;
+        private final byte[] bytes;
+        private final String key;
+
+        ByteEntry(int hash, byte[] bytes, String key) {
+            this.hash = hash;
+            this.bytes = bytes;
+            this.key = key;
+        }
+    }
+
+    private static class CharEntry {
+        private final int hash;
+        private final String key;
+
+        CharEntry(int hash, String key) {
+            this.hash = hash;
+            this.key = key;
+        }
+    }
+}
@@ -0,0 +1,518 @@
+package org.jsonbuddy.parse;
+
+import org.jsonbuddy.JsonFactory;
+import org.jsonbuddy.JsonString;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+
+/**
+ * The character level part of the JSON parser. Keeps track of the
+ * current character in {@link #lastRead} and knows how to read strings,
+ * numbers and literals. Subclasses provide the input by implementing
+ * {@link #readNext()} and may override {@link #readText()} with a
+ * scan over their input buffer.
+ */
+abstract class JsonLexer {
+
+    private static final int MAX_MANTISSA_DIGITS = 18;
+    /** Longer decimals with more than {@link #MAX_MANTISSA_DIGITS} digits are returned as BigDecimal */
+    private static final int MAX_DOUBLE_LENGTH = 20;
+    private static final int MAX_EXPONENT = 100_000;
+    private static final int MAX_EXACT_POWER = 22;
+    private static final double[] POWERS_OF_TEN = new double[MAX_EXACT_POWER + 1];
+    static {
+        POWERS_OF_TEN[0] = 1;
+        for (int i = 1; i < POWERS_OF_TEN.length; i++) {
+            POWERS_OF_TEN[i] = POWERS_OF_TEN[i - 1] * 10;
+        }
+    }
+
+    private static final byte WHITESPACE = 1;
+    private static final byte NUMBER_CHAR = 2;
+    private static final byte DOUBLE_CHAR = 4;
+    private static final byte NUMBER_END = 8;
+
+    private static final byte[] CHAR_CLASS = new byte[128];
+    static {
+        for (char c = 0; c < 128; c++) {
+            if (Character.isWhitespace(c)) {
+                CHAR_CLASS[c] |= WHITESPACE;
+            }
+        }
+        for (char c = '0'; c <= '9'; c++) {
+            CHAR_CLASS[c] |= NUMBER_CHAR;
+        }
+        for (char c : ".eE-+".toCharArray()) {
+            CHAR_CLASS[c] |= NUMBER_CHAR;
+        }
+        for (char c : ".eE".toCharArray()) {
+            CHAR_CLASS[c] |= DOUBLE_CHAR;
+        }
+        for (char c : " }],\n\r\t".toCharArray()) {
+            CHAR_CLASS[c] |= NUMBER_END;
+        }
+    }
+
+    char lastRead;
+    boolean finished;
+    JsonKeyCache keyCache = JsonKeyCache.shared();
+
+    private final StringBuilder scratch = new StringBuilder();
+    private final char[] token = new char[5];
+
+    /**
+     * Advances to the next character of the input, or sets
+     * {@link #finished} if there are no more characters.
+     */
+    abstract void readNext() throws IOException;
+
+    /**
+     * The position of {@link #lastRead} in the input, or the length of
+     * the input if {@link #finished}
+     */
+    abstract long position();
+
+    static boolean isWhitespace(char c) {
+        return c < 128 ? (CHAR_CLASS[c] & WHITESPACE) != 0 : Character.isWhitespace(c);
+    }
+
+    static boolean isNumberStart(char c) {
+        return c == '-' || (c < 128 ? (c >= '0' && c <= '9') : Character.isDigit(c));
+    }
+
+    static boolean isNumberChar(char c) {
+        return c < 128 ? (CHAR_CLASS[c] & NUMBER_CHAR) != 0 : Character.isDigit(c);
+    }
+
+    static boolean isDoubleChar(char c) {
+        return c < 128 && (CHAR_CLASS[c] & DOUBLE_CHAR) != 0;
+    }
+
+    static boolean isNumberEnd(char c) {
+        return c < 128 ? (CHAR_CLASS[c] & NUMBER_END) != 0 : Character.isSpaceChar(c);
+    }
+
+    /**
+     * Prepares for new input. Subclasses reset their input and call this.
+     */
+    void reset() {
+        lastRead = 0;
+        finished = false;
+    }
+
+    /**
+     * Shrinks the scratch space if it has grown beyond <code>maxRetained</code>
+     * chars, so a lexer that is reused does not hold on to the space for the
+     * longest string it has ever read.
+     */
+    void trimScratch(int maxRetained) {
+        if (scratch.capacity() > maxRetained) {
+            scratch.setLength(0);
+            scratch.trimToSize();
+        }
+    }
+
+    StringBuilder scratch() {
+        scratch.setLength(0);
+        return scratch;
+    }
+
+    /**
+     * Reads the text of a number starting at the current character and checks
+     * that it is a valid number, without converting it. Leaves the lexer
+     * at the character following the number.
+     */
+    String readNumberText() throws IOException {
+        return readNumberChars().toString();
+    }
+
+    /**
+     * Reads and checks a number like {@link #readNumberText()}, but returns the
+     * text in the scratch buffer, which is only valid until the lexer reads the
+     * next string or number.
+     */
+    CharSequence readNumberChars() throws IOException {
+        StringBuilder val = scratch();
+        while (!finished && isNumberChar(lastRead)) {
+            val.append(lastRead);
+            readNext();
+        }
+        if (!finished && !isNumberEnd(lastRead)) {
+            throw new JsonParseException("Illegal value '" + val + lastRead + "'");
+        }
+        validateNumber(val);
+        return val;
+    }
+
+    /**
+     * Skips a number starting at the current character, with the same checks
+     * as {@link #readNumberText()}, but without creating a String.
+     */
+    void skipNumber() throws IOException {
+        readNumberChars();
+    }
+
+    /**
+     * Checks that the text has the form <code>-?digits(.digits?)?([eE][+-]?digits)?</code>
+     *
+     * @throws JsonParseException if the text is not a number
+     */
+    static void validateNumber(CharSequence text) {
+        int length = text.length();
+        int i = length > 0 && text.charAt(0) == '-' ? 1 : 0;
+        int integerStart = i;
+        i = skipDigits(text, i);
+        boolean valid = i > integerStart;
+        if (valid && i < length && text.charAt(i) == '.') {
+            i = skipDigits(text, i + 1);
+        }
+        if (valid && i < length && (text.charAt(i) == 'e' || text.charAt(i) == 'E')) {
+            i++;
+            if (i < length && (text.charAt(i) == '-' || text.charAt(i) == '+')) {
+                i++;
+            }
+            int exponentStart = i;
+            i = skipDigits(text, i);
+            valid = i > exponentStart;
+        }
+        if (!valid || i != length) {
+            throw new JsonParseException("Illegal value '" + text + "'");
+        }
+    }
+
+    private static int skipDigits(CharSequence text, int i) {
+        while (i < text.length() && digit(text.charAt(i)) >= 0) {
+            i++;
+        }
+        return i;
+    }
+
+    /**
+     * Returns true if the Long or Double that was parsed from the text is written
+     * as the same text by {@link org.jsonbuddy.JsonNumber#toJson}, so it can be stored
+     * without its text and still be written back without loss. This is not the case
+     * for numbers like <code>-0</code>, <code>1.10</code> or <code>1e5</code>, or decimals with
+     * more digits than a double can hold.
+     */
+    static boolean isWrittenAs(Number value, CharSequence text) {
+        if (value instanceof Long) {
+            int start = text.length() > 1 && text.charAt(0) == '-' ? 1 : 0;
+            return text.charAt(start) != '0' || text.length() == 1;
+        } else if (value instanceof Double) {
+            return Double.toString((Double) value).contentEquals(text);
+        }
+        return false;
+    }
+
+    /**
+     * Converts the text of a number to a Long, or to a Double if it has a fraction
+     * or an exponent. The digits are accumulated into a long mantissa and a decimal
+     * exponent, and if both the mantissa and the power of ten are exact doubles,
+     * the double is computed with a single correctly rounded multiplication or
+     * division (Clinger's fast path). Other doubles are left to
+     * {@link Double#parseDouble}. Integers that overflow a long, and decimals with more
+     * significant digits than a long can hold that are written with more than 20
+     * characters, are returned as BigDecimal.
+     *
+     * @throws JsonParseException if the text is not a number
+     */
+    static Number parseNumber(CharSequence text) {
+        int length = text.length();
+        int i = 0;
+        boolean negative = i < length && text.charAt(i) == '-';
+        if (negative) {
+            i++;
+        }
+        long mantissa = 0;
+        int significantDigits = 0;
+        int exponent = 0;
+        boolean truncated = false;
+
+        int integerStart = i;
+        for (int digit; i < length && (digit = digit(text.charAt(i))) >= 0; i++) {
+            if (significantDigits < MAX_MANTISSA_DIGITS) {
+                mantissa = mantissa * 10 + digit;
+                significantDigits += mantissa != 0 ? 1 : 0;
+            } else {
+                truncated = true;
+                exponent++;
+            }
+        }
+        if (i == integerStart) {
+            throw new JsonParseException("Illegal value '" + text + "'");
+        }
+        boolean isDouble = false;
+        if (i < length && text.charAt(i) == '.') {
+            isDouble = true;
+            for (i++; i < length; i++) {
+                int digit = digit(text.charAt(i));
+                if (digit < 0) {
+                    break;
+                }
+                if (significantDigits < MAX_MANTISSA_DIGITS) {
+                    mantissa = mantissa * 10 + digit;
+                    significantDigits += mantissa != 0 ? 1 : 0;
+                    exponent--;
+                } else {
+                    truncated = true;
+                }
+            }
+        }
+        if (i < length && (text.charAt(i) == 'e' || text.charAt(i) == 'E')) {
+            isDouble = true;
+            i++;
+            boolean negativeExponent = i < length && text.charAt(i) == '-';
+            if (i < length && (text.charAt(i) == '-' || text.charAt(i) == '+')) {
+                i++;
+            }
+            int exponentStart = i;
+            int explicitExponent = 0;
+            for (int digit; i < length && (digit = digit(text.charAt(i))) >= 0; i++) {
+                explicitExponent = Math.min(explicitExponent * 10 + digit, MAX_EXPONENT);
+            }
+            if (i == exponentStart) {
+                throw new JsonParseException("Illegal value '" + text + "'");
+            }
+            exponent += negativeExponent ? -explicitExponent : explicitExponent;
+        }
+        if (i != length) {
+            throw new JsonParseException("Illegal value '" + text + "'");
+        }
+
+        if (!isDouble) {
+            if (!truncated) {
+                return negative ? -mantissa : mantissa;
+            }
+            String digits = text.toString();
+            try {
+                return Long.parseLong(digits);
+            } catch (NumberFormatException e) {
+                return new BigDecimal(digits);
+            }
+        }
+        if (truncated && length > MAX_DOUBLE_LENGTH) {
+            return new BigDecimal(text.toString());
+        }
+        if (!truncated && mantissa < (1L << 53) && exponent >= -MAX_EXACT_POWER && exponent <= MAX_EXACT_POWER) {
+            double value = exponent >= 0
+                    ? mantissa * POWERS_OF_TEN[exponent]
+                    : mantissa / POWERS_OF_TEN[-exponent];
+            return negative ? -value : value;
+        }
+        try {
+            return Double.parseDouble(text.toString());
+        } catch (NumberFormatException e) {
+            throw new JsonParseException("Illegal value '" + text + "'");
+        }
+    }
+
+    private static int digit(char c) {
+        if (c >= '0' && c <= '9') {
+            return c - '0';
+        }
+        return c < 128 ? -1 : Character.digit(c, 10);
+    }
+
+    /**
+     * Reads the literal <code>true</code> or <code>false</code>
+     */
+    boolean readBoolean() throws IOException {
+        boolean isTrue = (lastRead == 't');
+        expectValue(isTrue ? "true" : "false");
+        return isTrue;
+    }
+
+    /**
+     * Reads the literal <code>null</code>
+     */
+    void readNull() throws IOException {
+        expectValue("null");
+    }
+
+    private void expectValue(String value) throws IOException {
+        int count = 0;
+        boolean matches = true;
+        while (count < value.length() && !finished) {
+            token[count] = lastRead;
+            matches = matches && lastRead == value.charAt(count);
+            count++;
+            readNext();
+        }
+        if (!matches || count < value.length()) {
+            throw new JsonParseException(String.format("Unexpected value %s", new String(token, 0, count)));
+        }
+    }
+
+    /**
+     * Reads the contents of a string. Expects the opening quote to be consumed
+     * and leaves the lexer at the closing quote.
+     */
+    String readText() throws IOException {
+        StringBuilder res = scratch();
+        while (!(finished || lastRead == '"')) {
+            if (lastRead == '\\') {
+                int escaped = readEscape();
+                if (escaped >= 0) {
+                    res.append((char) escaped);
+                }
+            } else {
+                res.append(lastRead);
+            }
+            readNext();
+        }
+        if (finished) {
+            throw new JsonParseException("JsonString not closed. Expected \"");
+        }
+        return res.toString();
+    }
+
+    /**
+     * Skips the contents of a string like {@link #readText()}, without creating
+     * a String. Expects the opening quote to be consumed and leaves the lexer at
+     * the closing quote.
+     */
+    void skipText() throws IOException {
+        while (!(finished || lastRead == '"')) {
+            if (lastRead == '\\') {
+                readEscape();
+            }
+            readNext();
+        }
+        if (finished) {
+            throw new JsonParseException("JsonString not closed. Expected \"");
+        }
+    }
+
+    /**
+     * Checks the contents of a string strictly by the JSON grammar, without
+     * creating a String: control characters must be escaped, and only the
+     * escape sequences of the JSON specification are allowed. Expects the
+     * opening quote to be consumed and leaves the lexer at the closing quote.
+     */
+    void validateText() throws IOException {
+        while (!(finished || lastRead == '"')) {
+            if (lastRead == '\\') {
+                validateEscape();
+            } else if (lastRead < ' ') {
+                throw new JsonParseException("Unescaped control character in string", position());
+            }
+            readNext();
+        }
+        if (finished) {
+            throw new JsonParseException("JsonString not closed. Expected \"", position());
+        }
+    }
+
+    /**
+     * Checks the escape sequence starting at the current backslash. Leaves
+     * the lexer at the last character of the escape sequence.
+     */
+    void validateEscape() throws IOException {
+        readNext();
+        if (finished) {
+            throw new JsonParseException("JsonString not closed. Ended in escape sequence", position());
+        }
+        switch (lastRead) {
+            case '"':
+            case '\\':
+            case '/':
+            case 'b':
+            case 'f':
+            case 'n':
+            case 'r':
+            case 't':
+                return;
+            case 'u':
+                long start = position();
+                try {
+                    readUnicodeValue();
+                } catch (JsonParseException e) {
+                    throw new JsonParseException(e.getMessage(), start);
+                }
+                return;
+            default:
+                throw new JsonParseException("Illegal escape sequence \\" + lastRead, position());
+        }
+    }
+
+    /**
+     * Reads a string value starting at its opening quote. Leaves the lexer
+     * at the character following the closing quote.
+     */
+    JsonString readStringNode() throws IOException {
+        readNext();
+        String value = readText();
+        readNext();
+        return JsonFactory.jsonString(value);
+    }
+
+    /**
+     * Reads the contents of an object key, like {@link #readText()}. Subclasses
+     * look up keys without escape sequences in the {@link #keyCache}.
+     */
+    String readKey() throws IOException {
+        return readText();
+    }
+
+    /**
+     * Reads the escape sequence starting at the current backslash. Leaves
+     * the lexer at the last character of the escape sequence.
+     *
+     * @return the escaped character or -1 if the escape sequence is ignored
+     */
+    int readEscape() throws IOException {
+        readNext();
+        if (finished) {
+            throw new JsonParseException("JsonString not closed. Ended in escape sequence");
+        }
+        switch (lastRead) {
+            case '"':
+                return '"';
+            case '\\':
+                return '\\';
+            case '/':
+                return '/';
+            case 'b':
+                return '\b';
+            case 'f':
+                return '\f';
+            case 'n':
+                return '\n';
+            case 't':
+                return '\t';
+            case 'u':
+                return readUnicodeValue();
+            default:
+                return -1;
+        }
+    }
+
+    private char readUnicodeValue() throws IOException {
+        int unicode = 0;
+        boolean valid = true;
+        for (int i = 0; i < 4; i++) {
+            readNext();
+            if (finished) {
+                throw new JsonParseException("JsonString not closed. Ended in escape sequence");
+            }
+            token[i] = lastRead;
+            int digit = Character.digit(lastRead, 16);
+            valid = valid && digit >= 0;
+            unicode = (unicode << 4) | digit;
+        }
+        if (!valid) {
+            throw new JsonParseException("Illegal unicode sequence " + new String(token, 0, 4));
+        }
+        return (char) unicode;
+    }
+
+    /**
+     * Advances past any whitespace
+     */
+    void skipWhitespace() throws IOException {
+        while (!finished && isWhitespace(lastRead)) {
+            readNext();
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package org.jsonbuddy.parse;
+
+import org.jsonbuddy.JsonNode;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+/**
+ * Reads the records of a newline-delimited JSON file between two positions.
+ * The range is split at line breaks, so a parallel stream parses different
+ * parts of the file on different threads, each from its own memory mapping.
+ * Records must not contain raw line breaks, which NDJSON does not allow anyway.
+ * <p>
+ * The spliterator is ORDERED: splitting always hands out the first half
+ * of the range, so <code>forEachOrdered</code> and collecting to a List keeps
+ * the order of the file.
+ */
+class JsonLinesSpliterator implements Spliterator<JsonNode> {
+
+    private static final long MIN_SPLIT_SIZE = 1 << 16;
+    private static final int SEARCH_BUFFER_SIZE = 8192;
+
+    private final FileChannel channel;
+    private long from;
+    private final long to;
+    private JsonReader reader;
+
+    JsonLinesSpliterator(FileChannel channel, long from, long to) {
+        this.channel = channel;
+        this.from = from;
+        this.to = to;
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super JsonNode> action) {
+        if (reader == null) {
+            reader = new JsonReader(new Utf8Lexer(new MappedFileInputStream(channel, from, to)), null, JsonReader.LINE_DELIMITED);
+        }
+        JsonNode record;
+        try {
+            record = reader.nextValue();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        if (record == null) {
+            return false;
+        }
+        action.accept(record);
+        return true;
+    }
+
+    @Override
+    public Spliterator<JsonNode> trySplit() {
+        if (reader != null || to - from < MIN_SPLIT_SIZE) {
+            return null;
+        }
+        long lineStart;
+        try {
+            lineStart = nextLineStart(from + (to - from) / 2);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        if (lineStart >= to) {
+            return null;
+        }
+        JsonLinesSpliterator prefix = new JsonLinesSpliterator(channel, from, lineStart);
+        from = lineStart;
+        return prefix;
+    }
+
+    /**
+     * Returns the position after the first line break at or after <code>position</code>,
+     * or <code>to</code> if there is none.
+     */
+    private long nextLineStart(long position) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(SEARCH_BUFFER_SIZE);
+        while (position < to) {
+            buffer.clear();
+            buffer.limit((int) Math.min(SEARCH_BUFFER_SIZE, to - position));
+            int count = channel.read(buffer, position);
+            if (count <= 0) {
+                return to;
+            }
+            for (int i = 0; i < count; i++) {
+                if (buffer.get(i) == '\n') {
+                    return position + i + 1;
+                }
+            }
+            position += count;
+        }
+        return to;
+    }
+
+    /**
+     * The number of bytes left, as the number of records is not known in advance
+     */
+    @Override
+    public long estimateSize() {
+        return to - from;
+    }
+
+    @Override
+    public int characteristics() {
+        return ORDERED | NONNULL | IMMUTABLE;
+    }
+}
@@ -1,7 +1,26 @@
 package org.jsonbuddy.parse;
 
 public class JsonParseException extends RuntimeException {
+    private final long offset;
+
     public JsonParseException(String message) {
         super(message);
+        this.offset = -1;
+    }
+
+    /**
+     * @param offset the position of the error in the input, counted in bytes
+     *               for UTF-8 input and in chars for a Reader
+     */
+    public JsonParseException(String message, long offset) {
+        super(message + " at offset " + offset);
+        this.offset = offset;
+    }
+
+    /**
+     * The position of the error in the input, or -1 if it is not known
+     */
+    public long getOffset() {
+        return offset;
     }
 }
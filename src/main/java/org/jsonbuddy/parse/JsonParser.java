@@ -1,31 +1,207 @@
 package org.jsonbuddy.parse;
 
 import org.jsonbuddy.JsonArray;
-import org.jsonbuddy.JsonBoolean;
-import org.jsonbuddy.JsonFactory;
 import org.jsonbuddy.JsonNode;
-import org.jsonbuddy.JsonNull;
-import org.jsonbuddy.JsonNumber;
 import org.jsonbuddy.JsonObject;
-import org.jsonbuddy.JsonValue;
 
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.InputStreamReader;
 import java.io.Reader;
 import java.io.StringReader;
-import java.math.BigDecimal;
-import java.util.Arrays;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.util.Base64;
-import java.util.List;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * Create a JsonNode from an input Reader. Use {@link #parse} to parse any
  * primitive or complex JsonNode, {@link #parseToArray(Reader)} to parse a JsonArray
  * or {@link #parseToObject(Reader)} to parse a JsonObject.
+ * <p>
+ * A JsonParser instance keeps its input buffers, scratch space and scope
+ * stack between calls to {@link #read}, so a thread that parses many
+ * documents can reuse one parser instead of allocating these for each
+ * document. The static methods take their parsers from a lock-free pool.
+ * An instance must only be used by one thread at a time.
  */
 public class JsonParser {
 
+    private static final int MAX_RETAINED_SCRATCH = 64 * 1024;
+
+    private JsonKeyCache keyCache = JsonKeyCache.shared();
+    private CharLexer charLexer;
+    private JsonReader charReader;
+    private Utf8Lexer utf8Lexer;
+    private JsonReader utf8Reader;
+
+    /**
+     * Creates a parser that can be used for any number of documents, one at a time
+     */
+    public JsonParser() {
+    }
+
+    /**
+     * Sets the cache that is used to share the String instances of object keys.
+     *
+     * @see JsonReader#setKeyCache
+     */
+    public void setKeyCache(JsonKeyCache keyCache) {
+        this.keyCache = keyCache;
+        if (charLexer != null) {
+            charLexer.keyCache = keyCache;
+        }
+        if (utf8Lexer != null) {
+            utf8Lexer.keyCache = keyCache;
+        }
+    }
+
+    /**
+     * Parse the String as a JsonNode, reusing the buffers of this parser
+     *
+     * @throws JsonParseException if a JSON syntax error was encountered
+     */
+    public JsonNode read(String input) throws JsonParseException {
+        return read(input, null);
+    }
+
+    /**
+     * Parse the String, but only build JsonNodes for the parts that are
+     * selected by the filter, reusing the buffers of this parser.
+     *
+     * @see JsonPathFilter
+     * @throws JsonParseException if a JSON syntax error was encountered
+     */
+    public JsonNode read(String input, JsonPathFilter filter) throws JsonParseException {
+        try {
+            return readChars(new StringReader(input), filter);
+        } catch (IOException e) {
+            throw new RuntimeException("Should never happen with StringReader", e);
+        }
+    }
+
+    /**
+     * Parse the Reader as a JsonNode, reusing the buffers of this parser.
+     * The Reader is not closed.
+     *
+     * @throws JsonParseException if a JSON syntax error was encountered
+     * @throws IOException if there was an error reading the data from the Reader
+     */
+    public JsonNode read(Reader reader) throws IOException, JsonParseException {
+        return readChars(reader, null);
+    }
+
+    private JsonNode readChars(Reader reader, JsonPathFilter filter) throws IOException {
+        if (charReader == null) {
+            charLexer = new CharLexer(null);
+            charLexer.keyCache = keyCache;
+            charReader = new JsonReader(charLexer, null);
+        }
+        charLexer.reset(reader);
+        charReader.reset();
+        try {
+            return nextValue(charReader, filter);
+        } finally {
+            charLexer.reset((Reader) null);
+            charLexer.trimScratch(MAX_RETAINED_SCRATCH);
+        }
+    }
+
+    /**
+     * Parse the UTF-8 encoded InputStream as a JsonNode, reusing the buffers of
+     * this parser. The InputStream is not closed.
+     *
+     * @throws JsonParseException if a JSON syntax error was encountered
+     * @throws IOException if there was an error reading the data from the InputStream
+     */
+    public JsonNode read(InputStream inputStream) throws IOException, JsonParseException {
+        return read(inputStream, null);
+    }
+
+    /**
+     * Parse the UTF-8 encoded InputStream, but only build JsonNodes for the parts
+     * that are selected by the filter, reusing the buffers of this parser.
+     * The InputStream is not closed.
+     *
+     * @see JsonPathFilter
+     * @throws JsonParseException if a JSON syntax error was encountered
+     * @throws IOException if there was an error reading the data from the InputStream
+     */
+    public JsonNode read(InputStream inputStream, JsonPathFilter filter) throws IOException, JsonParseException {
+        utf8Reader().reset();
+        utf8Lexer.reset(inputStream);
+        try {
+            return nextValue(utf8Reader, filter);
+        } finally {
+            utf8Lexer.reset((InputStream) null);
+            utf8Lexer.trimScratch(MAX_RETAINED_SCRATCH);
+        }
+    }
+
+    /**
+     * Parse the UTF-8 encoded bytes as a JsonNode, reusing the buffers of this parser.
+     * Like {@link #parse(byte[])}, long strings are not decoded until they are used.
+     *
+     * @throws JsonParseException if a JSON syntax error was encountered
+     */
+    public JsonNode read(byte[] input) throws JsonParseException {
+        return read(input, 0, input.length);
+    }
+
+    /**
+     * Parse <code>length</code> UTF-8 encoded bytes starting at <code>offset</code>
+     * as a JsonNode, reusing the buffers of this parser.
+     *
+     * @see #parse(byte[])
+     * @throws JsonParseException if a JSON syntax error was encountered
+     */
+    public JsonNode read(byte[] input, int offset, int length) throws JsonParseException {
+        return readBytes(input, offset, length, null);
+    }
+
+    /**
+     * Parse the UTF-8 encoded bytes, but only build JsonNodes for the parts
+     * that are selected by the filter, reusing the buffers of this parser.
+     *
+     * @see JsonPathFilter
+     * @throws JsonParseException if a JSON syntax error was encountered
+     */
+    public JsonNode read(byte[] input, JsonPathFilter filter) throws JsonParseException {
+        return readBytes(input, 0, input.length, filter);
+    }
+
+    private JsonNode readBytes(byte[] input, int offset, int length, JsonPathFilter filter) {
+        utf8Reader().reset();
+        utf8Lexer.reset(input, offset, length);
+        try {
+            return nextValue(utf8Reader, filter);
+        } catch (IOException e) {
+            throw new RuntimeException("Should never happen with byte[]", e);
+        } finally {
+            utf8Lexer.reset((InputStream) null);
+            utf8Lexer.trimScratch(MAX_RETAINED_SCRATCH);
+        }
+    }
+
+    private static JsonNode nextValue(JsonReader reader, JsonPathFilter filter) throws IOException {
+        return filter != null ? reader.nextValue(filter) : reader.nextValue();
+    }
+
+    private JsonReader utf8Reader() {
+        if (utf8Reader == null) {
+            utf8Lexer = new Utf8Lexer((InputStream) null);
+            utf8Lexer.keyCache = keyCache;
+            utf8Reader = new JsonReader(utf8Lexer, null);
+        }
+        return utf8Reader;
+    }
+
     /**
      * Parse the reader as a JsonNode. Will return a JsonArray, JsonArray
      * or a JsonValue.
@@ -34,7 +210,12 @@ public class JsonParser {
      * @throws IOException if there was an error reading the data from the Reader
      */
     public static JsonNode parseNode(Reader reader) throws IOException, JsonParseException {
-        return new JsonParser(reader).parseValue();
+        JsonParser parser = JsonParserPool.acquire();
+        try {
+            return parser.read(reader);
+        } finally {
+            JsonParserPool.release(parser);
+        }
     }
 
     /**
@@ -52,13 +233,291 @@ public class JsonParser {
     }
 
     /**
-     * Parse the InputStream as a JsonNode. Will return a JsonArray, JsonArray
+     * Parse the UTF-8 encoded InputStream as a JsonNode. Will return a JsonArray, JsonArray
      * or a JsonValue.
      *
      * @throws JsonParseException if a JSON syntax error was encountered
+     * @throws IOException if there was an error reading the data from the InputStream
      */
     public static JsonNode parse(InputStream inputStream) throws JsonParseException, IOException {
-        return parseNode(new InputStreamReader(inputStream));
+        JsonParser parser = JsonParserPool.acquire();
+        try {
+            return parser.read(inputStream);
+        } finally {
+            JsonParserPool.release(parser);
+        }
+    }
+
+    /**
+     * Parse the UTF-8 encoded file as a JsonNode. Will return a JsonArray, JsonArray
+     * or a JsonValue. The file is memory mapped rather than read onto the heap,
+     * so large files can be parsed straight from the operating system's page cache.
+     *
+     * @throws JsonParseException if a JSON syntax error was encountered
+     * @throws IOException if there was an error reading the file
+     */
+    public static JsonNode parse(Path path) throws JsonParseException, IOException {
+        try (InputStream input = new MappedFileInputStream(path)) {
+            return parse(input);
+        }
+    }
+
+    /**
+     * Parse the UTF-8 encoded file, which must contain a JSON array, on the
+     * threads of the common ForkJoinPool.
+     *
+     * @see #parseArrayInParallel(Path, ForkJoinPool)
+     */
+    public static JsonArray parseArrayInParallel(Path path) throws JsonParseException, IOException {
+        return parseArrayInParallel(path, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Parse the UTF-8 encoded file, which must contain a JSON array, on the
+     * threads of the ForkJoinPool. The file is first scanned for the boundaries
+     * of the array elements, which only tracks brackets and strings, and batches of
+     * elements are parsed in parallel as the scan finds them. The result
+     * is the same as {@link #parse(Path)}, but for very large arrays it
+     * is produced several times faster on a multi-core machine.
+     *
+     * @throws JsonParseException if a JSON syntax error was encountered,
+     *             or if the JSON was not a JsonArray
+     * @throws IOException if there was an error reading the file
+     */
+    public static JsonArray parseArrayInParallel(Path path, ForkJoinPool pool) throws JsonParseException, IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return new ParallelArrayParser(channel, pool).parse();
+        }
+    }
+
+    /**
+     * Parse the UTF-8 encoded bytes as a JsonNode. Will return a JsonArray, JsonArray
+     * or a JsonValue. Long strings are not decoded until they are used.
+     *
+     * @throws JsonParseException if a JSON syntax error was encountered
+     */
+    public static JsonNode parse(byte[] input) throws JsonParseException {
+        return parse(input, 0, input.length);
+    }
+
+    /**
+     * Parse <code>length</code> UTF-8 encoded bytes starting at <code>offset</code>
+     * as a JsonNode. Will return a JsonArray, JsonArray or a JsonValue.
+     *
+     * @see #parse(byte[])
+     * @throws JsonParseException if a JSON syntax error was encountered
+     */
+    public static JsonNode parse(byte[] input, int offset, int length) throws JsonParseException {
+        JsonParser parser = JsonParserPool.acquire();
+        try {
+            return parser.read(input, offset, length);
+        } finally {
+            JsonParserPool.release(parser);
+        }
+    }
+
+    /**
+     * Parse the String, but only build JsonNodes for the parts that are
+     * selected by the filter. Everything else is checked for syntax errors
+     * and skipped.
+     *
+     * @see JsonPathFilter
+     * @throws JsonParseException if a JSON syntax error was encountered
+     */
+    public static JsonNode parse(String input, JsonPathFilter filter) throws JsonParseException {
+        JsonParser parser = JsonParserPool.acquire();
+        try {
+            return parser.read(input, filter);
+        } finally {
+            JsonParserPool.release(parser);
+        }
+    }
+
+    /**
+     * Parse the UTF-8 encoded InputStream, but only build JsonNodes for the
+     * parts that are selected by the filter.
+     *
+     * @see JsonPathFilter
+     * @throws JsonParseException if a JSON syntax error was encountered
+     * @throws IOException if there was an error reading the data from the InputStream
+     */
+    public static JsonNode parse(InputStream inputStream, JsonPathFilter filter) throws JsonParseException, IOException {
+        JsonParser parser = JsonParserPool.acquire();
+        try {
+            return parser.read(inputStream, filter);
+        } finally {
+            JsonParserPool.release(parser);
+        }
+    }
+
+    /**
+     * Parse the UTF-8 encoded bytes, but only build JsonNodes for the parts
+     * that are selected by the filter.
+     *
+     * @see JsonPathFilter
+     * @throws JsonParseException if a JSON syntax error was encountered
+     */
+    public static JsonNode parse(byte[] input, JsonPathFilter filter) throws JsonParseException {
+        JsonParser parser = JsonParserPool.acquire();
+        try {
+            return parser.read(input, filter);
+        } finally {
+            JsonParserPool.release(parser);
+        }
+    }
+
+    /**
+     * Checks that the UTF-8 encoded bytes are a single well-formed JSON value,
+     * without creating any JsonNodes. The check is stricter than the parser:
+     * trailing commas, unknown escape sequences, unescaped control characters,
+     * numbers with leading zeros, malformed UTF-8 and content after the value
+     * are all rejected.
+     *
+     * @throws JsonParseException if the input is not valid JSON. {@link JsonParseException#getOffset()}
+     *              is the position of the error in bytes
+     */
+    public static void validate(byte[] input) throws JsonParseException {
+        validate(input, 0, input.length);
+    }
+
+    /**
+     * Checks that <code>length</code> UTF-8 encoded bytes starting at <code>offset</code>
+     * are a single well-formed JSON value. The offset of an error is counted from
+     * <code>offset</code>.
+     *
+     * @see #validate(byte[])
+     * @throws JsonParseException if the input is not valid JSON
+     */
+    public static void validate(byte[] input, int offset, int length) throws JsonParseException {
+        try {
+            new JsonValidator(new Utf8Lexer(input, offset, length)).validate();
+        } catch (IOException e) {
+            throw new RuntimeException("Should never happen with byte[]", e);
+        }
+    }
+
+    /**
+     * Checks that the UTF-8 encoded InputStream is a single well-formed JSON value.
+     * The InputStream is read to the end, but not closed.
+     *
+     * @see #validate(byte[])
+     * @throws JsonParseException if the input is not valid JSON
+     * @throws IOException if there was an error reading the data from the InputStream
+     */
+    public static void validate(InputStream inputStream) throws JsonParseException, IOException {
+        new JsonValidator(new Utf8Lexer(inputStream)).validate();
+    }
+
+    /**
+     * Checks that the Reader contains a single well-formed JSON value.
+     * {@link JsonParseException#getOffset()} is the position of an error in chars.
+     *
+     * @see #validate(byte[])
+     * @throws JsonParseException if the input is not valid JSON
+     * @throws IOException if there was an error reading the data from the Reader
+     */
+    public static void validate(Reader reader) throws JsonParseException, IOException {
+        new JsonValidator(new CharLexer(reader)).validate();
+    }
+
+    /**
+     * Parse newline-delimited JSON (also known as JSON Lines or NDJSON) from the
+     * UTF-8 encoded InputStream as a stream with one JsonNode per line. Records are
+     * read lazily as the stream is consumed, with one buffer for the whole input.
+     * Blank lines are skipped and lines may end with either LF or CRLF.
+     * The InputStream is not closed.
+     * <p>
+     * A JSON syntax error is thrown as a JsonParseException when the
+     * offending record is reached, and read errors as an UncheckedIOException.
+     */
+    public static Stream<JsonNode> lines(InputStream inputStream) {
+        return stream(new JsonReader(new Utf8Lexer(inputStream), inputStream, JsonReader.LINE_DELIMITED));
+    }
+
+    /**
+     * Parse newline-delimited JSON from the Reader as a stream with one JsonNode per line.
+     * The Reader is not closed.
+     *
+     * @see #lines(InputStream)
+     */
+    public static Stream<JsonNode> lines(Reader reader) {
+        return stream(new JsonReader(new CharLexer(reader), reader, JsonReader.LINE_DELIMITED));
+    }
+
+    /**
+     * Parse a sequence of JSON values from the UTF-8 encoded InputStream as a stream
+     * with one JsonNode per value. The values may follow each other directly, like
+     * <code>{"a":1}{"a":2}</code>, or be separated by any whitespace, including
+     * line breaks. Values are read lazily as the stream is consumed, with one
+     * buffer for the whole input. The InputStream is not closed.
+     * <p>
+     * A JSON syntax error is thrown as a JsonParseException when the
+     * offending value is reached, and read errors as an UncheckedIOException.
+     */
+    public static Stream<JsonNode> values(InputStream inputStream) {
+        return stream(new JsonReader(new Utf8Lexer(inputStream), inputStream, JsonReader.CONCATENATED));
+    }
+
+    /**
+     * Parse a sequence of JSON values from the Reader as a stream with one
+     * JsonNode per value. The Reader is not closed.
+     *
+     * @see #values(InputStream)
+     */
+    public static Stream<JsonNode> values(Reader reader) {
+        return stream(new JsonReader(new CharLexer(reader), reader, JsonReader.CONCATENATED));
+    }
+
+    /**
+     * Parse the newline-delimited JSON file as a stream with one JsonNode per line.
+     * The file is memory mapped, and the stream can be split at line breaks,
+     * so <code>lines(path).parallel()</code> parses records on all cores.
+     * Records are in file order for ordered operations like
+     * <code>forEachOrdered</code> or <code>collect(toList())</code>; use
+     * <code>unordered()</code> if the order does not matter.
+     * <p>
+     * The stream must be closed to release the file, preferably with
+     * try-with-resources.
+     *
+     * @throws IOException if the file could not be opened
+     * @see #lines(InputStream)
+     */
+    public static Stream<JsonNode> lines(Path path) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            return StreamSupport.stream(new JsonLinesSpliterator(channel, 0, channel.size()), false)
+                    .onClose(() -> {
+                        try {
+                            channel.close();
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                    });
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    private static Stream<JsonNode> stream(JsonReader reader) {
+        Spliterator<JsonNode> records = new Spliterators.AbstractSpliterator<JsonNode>(
+                Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL) {
+            @Override
+            public boolean tryAdvance(Consumer<? super JsonNode> action) {
+                JsonNode record;
+                try {
+                    record = reader.nextValue();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                if (record == null) {
+                    return false;
+                }
+                action.accept(record);
+                return true;
+            }
+        };
+        return StreamSupport.stream(records, false);
     }
 
     /**
@@ -133,224 +592,6 @@ public class JsonParser {
      * @throws IllegalArgumentException if input not base64encoded
      */
     public static JsonNode parseFromBase64encodedString(String base64encodedJson) throws IllegalArgumentException {
-        return parse(new String(Base64.getUrlDecoder().decode(base64encodedJson)));
-    }
-
-    private Reader reader;
-    private char lastRead;
-    private boolean finished;
-
-    private JsonParser(Reader reader) throws IOException {
-        this.reader = reader;
-        readNext();
-    }
-
-    private void readNext() throws IOException {
-        int read = reader.read();
-        if (read == -1) {
-            finished = true;
-            return;
-        }
-        this.lastRead = (char) read;
-    }
-
-    private JsonNode parseValue() throws IOException {
-        while (!finished) {
-            switch (lastRead) {
-                case '{':
-                    return parseObject();
-                case '[':
-                    return parseArray();
-                case '"':
-                    return parseStringValue();
-                case 't':
-                case 'f':
-                    return parseBooleanValue();
-                case 'n':
-                    return parseNullValue();
-            }
-            if (lastRead == '-' || Character.isDigit(lastRead)) {
-                return parseNumberValue();
-            }
-            if (!(Character.isWhitespace(lastRead))) {
-                throw new JsonParseException("Unexpected character '" + lastRead + "'");
-            }
-            readNext();
-        }
-        return null;
-    }
-
-
-    private JsonValue parseNumberValue() throws IOException {
-        StringBuilder val = new StringBuilder();
-        boolean isDouble = false;
-        while (!finished && (Character.isDigit(lastRead) || ".eE-+".contains("" + lastRead))) {
-            isDouble = isDouble || ".eE".contains("" + lastRead);
-            val.append(lastRead);
-            readNext();
-        }
-        if (!finished && (!(Character.isSpaceChar(lastRead) || "}],".contains("" + lastRead))) && (!"\n\r\t".contains("" + lastRead))) {
-            throw new JsonParseException("Illegal value '" + val + lastRead + "'");
-        }
-        if (val.length() > 20) {
-            return new JsonNumber(new BigDecimal(val.toString()));
-        }
-        if (isDouble) {
-            return new JsonNumber(Double.parseDouble(val.toString()));
-        }
-        return new JsonNumber(Long.parseLong(val.toString()));
-    }
-
-
-    private JsonNull parseNullValue() throws IOException {
-        expectValue("null");
-        return new JsonNull();
-    }
-
-    private JsonValue parseBooleanValue() throws IOException {
-        boolean isTrue = (lastRead == 't');
-        String expect = isTrue ? "true" : "false";
-        expectValue(expect);
-        return new JsonBoolean(isTrue);
-    }
-
-    private void expectValue(String value) throws IOException {
-        StringBuilder res = new StringBuilder();
-        for (int i=0;i<value.length() && !finished;i++) {
-            res.append(lastRead);
-            readNext();
-        }
-        if (!res.toString().equals(value)) {
-            throw new JsonParseException(String.format("Unexpected value %s", res));
-        }
-    }
-
-    private JsonArray parseArray() throws IOException {
-        JsonArray jsonArray = new JsonArray();
-        while (lastRead != ']') {
-            do {
-                readNext();
-            } while (Character.isWhitespace(lastRead));
-            if (lastRead == ']') {
-                break;
-            }
-            JsonNode jsonArrayValue = parseValue();
-            jsonArray.add(jsonArrayValue);
-            readSpaceUntil("Expected , or ] in array", ']', ',');
-        }
-        readNext();
-        return jsonArray;
-    }
-
-    private JsonValue parseStringValue() throws IOException {
-        readNext();
-        String value = readText();
-        return JsonFactory.jsonString(value);
-    }
-
-    private JsonObject parseObject() throws IOException {
-        JsonObject jsonObject = new JsonObject();
-        while (lastRead != '}') {
-            readSpaceUntil("JsonObject not closed. Expected }", '}', '"');
-            if (lastRead == '}') {
-                readNext();
-                return jsonObject;
-            }
-            readNext();
-            String key = readText();
-            readSpaceUntil("Expected value for objectkey " + key, ':');
-            readNext();
-            if (finished) {
-                throw new JsonParseException("Expected value for key " + key);
-            }
-            JsonNode value = parseValue();
-            jsonObject.put(key, value);
-            readSpaceUntil("JsonObject not closed. Expected }", ',', '}');
-        }
-        readNext();
-        return jsonObject;
-    }
-
-    private String readText() throws IOException {
-        StringBuilder res = new StringBuilder();
-        while (!(finished || lastRead == '"')) {
-            if (lastRead == '\\') {
-                readNext();
-                if (finished) {
-                    throw new JsonParseException("JsonString not closed. Ended in escape sequence");
-                }
-                switch (lastRead) {
-                    case '"':
-                        res.append("\"");
-                        break;
-                    case '\\':
-                        res.append("\\");
-                        break;
-                    case '/':
-                        res.append("/");
-                        break;
-                    case 'b':
-                        res.append("\b");
-                        break;
-                    case 'f':
-                        res.append("\f");
-                        break;
-                    case 'n':
-                        res.append("\n");
-                        break;
-                    case 't':
-                        res.append("\t");
-                        break;
-                    case 'u':
-                        res.append(readUnicodeValue());
-                        break;
-                }
-            } else {
-                res.append(lastRead);
-            }
-            readNext();
-        }
-        if (finished) {
-            throw new JsonParseException("JsonString not closed. Expected \"");
-        }
-        return res.toString();
-    }
-
-    private String readUnicodeValue() throws IOException {
-        StringBuilder code = new StringBuilder();
-        for (int i=0;i<4;i++) {
-            readNext();
-            if (finished) {
-                throw new JsonParseException("JsonString not closed. Ended in escape sequence");
-            }
-            code.append(lastRead);
-        }
-
-        int unicode;
-        try {
-            unicode = Integer.parseInt(code.toString(), 16);
-        } catch (NumberFormatException e) {
-            throw new JsonParseException("Illegal unicode sequence " + code);
-        }
-        return Character.toString((char)unicode);
+        return parse(Base64.getUrlDecoder().decode(base64encodedJson));
     }
-
-    private void readSpaceUntil(String errormessage, Character... readUntil) throws IOException {
-        List<Character> until = Arrays.asList(readUntil);
-        if (until.contains(lastRead)) {
-            return;
-        }
-        readNext();
-        while (!(finished || until.contains(lastRead))) {
-            if (!Character.isWhitespace(lastRead)) {
-                throw new JsonParseException(errormessage);
-            }
-            readNext();
-        }
-        if (finished) {
-            throw new JsonParseException(errormessage);
-        }
-    }
-
-
 }
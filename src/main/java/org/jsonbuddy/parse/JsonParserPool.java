@@ -0,0 +1,54 @@
+package org.jsonbuddy.parse;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * The JsonParsers that are reused by the static methods of {@link JsonParser}.
+ * A parser is taken out of its slot with an atomic swap and put back with a
+ * compare-and-set, so a parser is only used by one thread at a time and no
+ * thread ever blocks. If all slots are empty, a new parser is created, and
+ * if all slots are full, the returned parser is left to the garbage collector.
+ * Unlike a ThreadLocal, the pool does not keep a parser alive for each of
+ * a large number of virtual threads.
+ */
+final class JsonParserPool {
+
+    private static final int SIZE = Integer.highestOneBit(Runtime.getRuntime().availableProcessors() * 4 - 1) << 1;
+    private static final int MASK = SIZE - 1;
+    private static final AtomicReferenceArray<JsonParser> PARSERS = new AtomicReferenceArray<>(SIZE);
+
+    private JsonParserPool() {
+    }
+
+    static JsonParser acquire() {
+        int start = slot();
+        for (int i = 0; i < SIZE; i++) {
+            int slot = (start + i) & MASK;
+            if (PARSERS.get(slot) != null) {
+                JsonParser parser = PARSERS.getAndSet(slot, null);
+                if (parser != null) {
+                    return parser;
+                }
+            }
+        }
+        return new JsonParser();
+    }
+
+    static void release(JsonParser parser) {
+        int start = slot();
+        for (int i = 0; i < SIZE; i++) {
+            int slot = (start + i) & MASK;
+            if (PARSERS.get(slot) == null && PARSERS.compareAndSet(slot, null, parser)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Spreads the threads over the slots, so threads usually find their own parser again
+     */
+    private static int slot() {
+        int hash = System.identityHashCode(Thread.currentThread());
+        return hash ^ (hash >>> 16);
+    }
+}
@@ -0,0 +1,183 @@
+package org.jsonbuddy.parse;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A set of paths that selects the parts of a document to build as JsonNodes
+ * with {@link JsonParser#parse(String, JsonPathFilter)} or
+ * {@link JsonReader#nextValue(JsonPathFilter)}. Everything else is skipped
+ * by the lexer without creating any Strings or JsonNodes.
+ * <p>
+ * A path is either a JSON Pointer like <code>/user/id</code> or a dotted path
+ * like <code>user.id</code>. The segment <code>*</code> matches every member of an
+ * object or every element of an array, as in <code>/items/*&#47;price</code>, and
+ * a number matches the array element at that position. The whole value at the end of
+ * a path is selected, and the objects and arrays on the way to it only keep the
+ * selected members and elements:
+ *
+ * <pre>
+ * JsonPathFilter filter = JsonPathFilter.of("/user/id", "items.*.price");
+ * JsonObject message = (JsonObject) JsonParser.parse(json, filter);
+ * // {"user":{"id":42},"items":[{"price":10},{"price":12}]}
+ * </pre>
+ *
+ * Primitive values that are not selected are left out. Arrays only
+ * keep the selected elements, so with <code>/items/1</code>, the element at
+ * position 1 is the first element of the result. A filter is immutable and
+ * can be reused by any number of parsers.
+ */
+public final class JsonPathFilter {
+
+    private static final String WILDCARD = "*";
+
+    private final Node root;
+
+    private JsonPathFilter(List<String[]> paths) {
+        this.root = new Node(paths, 0);
+    }
+
+    /**
+     * Creates a filter that selects the values at the paths
+     *
+     * @throws IllegalArgumentException if a path is not a valid JSON Pointer
+     */
+    public static JsonPathFilter of(String... paths) {
+        return of(Arrays.asList(paths));
+    }
+
+    /**
+     * Creates a filter that selects the values at the paths
+     *
+     * @throws IllegalArgumentException if a path is not a valid JSON Pointer
+     */
+    public static JsonPathFilter of(Iterable<String> paths) {
+        List<String[]> segments = new ArrayList<>();
+        for (String path : paths) {
+            segments.add(split(path));
+        }
+        return new JsonPathFilter(segments);
+    }
+
+    Node root() {
+        return root;
+    }
+
+    private static String[] split(String path) {
+        if (path.isEmpty()) {
+            return new String[0];
+        }
+        if (!path.startsWith("/")) {
+            return path.split("\\.", -1);
+        }
+        String[] segments = path.substring(1).split("/", -1);
+        for (int i = 0; i < segments.length; i++) {
+            segments[i] = unescape(segments[i], path);
+        }
+        return segments;
+    }
+
+    private static String unescape(String segment, String path) {
+        if (segment.indexOf('~') < 0) {
+            return segment;
+        }
+        StringBuilder result = new StringBuilder();
+        for (int i = 0; i < segment.length(); i++) {
+            char c = segment.charAt(i);
+            if (c != '~') {
+                result.append(c);
+            } else if (i + 1 < segment.length() && (segment.charAt(i + 1) == '0' || segment.charAt(i + 1) == '1')) {
+                result.append(segment.charAt(++i) == '0' ? '~' : '/');
+            } else {
+                throw new IllegalArgumentException("Illegal escape sequence in JSON Pointer " + path);
+            }
+        }
+        return result.toString();
+    }
+
+    /**
+     * The selection below one position in the document. The paths through
+     * a wildcard are also added to every named member, so looking up a
+     * member or element is a single map lookup.
+     */
+    static final class Node {
+
+        private final boolean selectsAll;
+        private final Map<String, Node> members = new HashMap<>();
+        private final Map<Integer, Node> elements = new HashMap<>();
+        private final Node wildcard;
+
+        private Node(List<String[]> paths, int depth) {
+            boolean selectsAll = false;
+            Set<String> names = new LinkedHashSet<>();
+            List<String[]> wildcardPaths = new ArrayList<>();
+            for (String[] path : paths) {
+                if (path.length == depth) {
+                    selectsAll = true;
+                } else if (path[depth].equals(WILDCARD)) {
+                    wildcardPaths.add(path);
+                } else {
+                    names.add(path[depth]);
+                }
+            }
+            this.selectsAll = selectsAll;
+            if (selectsAll) {
+                this.wildcard = null;
+                return;
+            }
+            for (String name : names) {
+                List<String[]> memberPaths = new ArrayList<>(wildcardPaths);
+                for (String[] path : paths) {
+                    if (path.length > depth && path[depth].equals(name)) {
+                        memberPaths.add(path);
+                    }
+                }
+                Node member = new Node(memberPaths, depth + 1);
+                members.put(name, member);
+                if (isArrayIndex(name)) {
+                    elements.put(Integer.parseInt(name), member);
+                }
+            }
+            this.wildcard = wildcardPaths.isEmpty() ? null : new Node(wildcardPaths, depth + 1);
+        }
+
+        private static boolean isArrayIndex(String name) {
+            if (name.isEmpty() || name.length() > 9 || (name.length() > 1 && name.charAt(0) == '0')) {
+                return false;
+            }
+            for (int i = 0; i < name.length(); i++) {
+                if (name.charAt(i) < '0' || name.charAt(i) > '9') {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * True if the whole value at this position is selected
+         */
+        boolean selectsAll() {
+            return selectsAll;
+        }
+
+        /**
+         * The selection below the object member, or null if it is not selected
+         */
+        Node member(String name) {
+            Node member = members.get(name);
+            return member != null ? member : wildcard;
+        }
+
+        /**
+         * The selection below the array element, or null if it is not selected
+         */
+        Node element(int index) {
+            return elements.isEmpty() ? wildcard : elements.getOrDefault(index, wildcard);
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package org.jsonbuddy.parse;
+
+import org.jsonbuddy.JsonNode;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+/**
+ * A non-blocking parser for UTF-8 encoded JSON that arrives in chunks,
+ * for example from NIO channels. Call {@link #feed} with each chunk as it
+ * arrives and {@link #endOfInput()} when there is no more input. Every
+ * value is passed to the consumer as soon as it is complete. Only the
+ * bytes of the value that is currently incomplete are kept between chunks.
+ *
+ * <pre>
+ * JsonPushParser parser = JsonPushParser.arrayElements(element -&gt; process(element));
+ * while (channel.read(buffer) != -1) {
+ *     buffer.flip();
+ *     parser.feed(buffer);
+ *     buffer.clear();
+ * }
+ * parser.endOfInput();
+ * </pre>
+ */
+public class JsonPushParser {
+
+    private final StructureScanner scanner;
+    private final Consumer<JsonNode> consumer;
+    private final Utf8Lexer lexer = new Utf8Lexer(new byte[0], 0, 0);
+    private final JsonReader reader = new JsonReader(lexer, null);
+
+    private byte[] buffer = new byte[8192];
+    private int valueStart = -1;
+    private int scanned;
+    private int length;
+
+    /**
+     * Creates a parser that passes each top level value to the consumer.
+     * The values may follow each other directly or be separated by whitespace.
+     */
+    public JsonPushParser(Consumer<JsonNode> consumer) {
+        this(false, consumer);
+    }
+
+    private JsonPushParser(boolean unwrap, Consumer<JsonNode> consumer) {
+        this.scanner = new StructureScanner(unwrap);
+        this.consumer = consumer;
+    }
+
+    /**
+     * Creates a parser that passes each element of a top level array to the
+     * consumer, so a large array can be processed without holding all of it.
+     */
+    public static JsonPushParser arrayElements(Consumer<JsonNode> consumer) {
+        return new JsonPushParser(true, consumer);
+    }
+
+    /**
+     * Consumes the remaining bytes of the chunk and passes every value
+     * that is completed by it to the consumer.
+     *
+     * @throws JsonParseException if a JSON syntax error was encountered
+     */
+    public void feed(ByteBuffer chunk) {
+        int count = chunk.remaining();
+        ensureCapacity(count);
+        chunk.get(buffer, length, count);
+        length += count;
+        scanAvailable();
+    }
+
+    /**
+     * Consumes <code>length</code> bytes starting at <code>offset</code> and passes
+     * every value that is completed by them to the consumer.
+     *
+     * @throws JsonParseException if a JSON syntax error was encountered
+     */
+    public void feed(byte[] bytes, int offset, int length) {
+        ensureCapacity(length);
+        System.arraycopy(bytes, offset, buffer, this.length, length);
+        this.length += length;
+        scanAvailable();
+    }
+
+    /**
+     * Signals that there is no more input
+     *
+     * @throws JsonParseException if the input ended inside a value, or
+     *     inside the array for {@link #arrayElements}
+     */
+    public void endOfInput() {
+        if (scanner.endScalar()) {
+            emit(length);
+        }
+        scanner.finish();
+        length = 0;
+        scanned = 0;
+    }
+
+    private void scanAvailable() {
+        while (scanned < length) {
+            scanned = scanner.scan(buffer, scanned, length);
+            if (scanner.event() == StructureScanner.VALUE_START) {
+                valueStart = scanned - 1;
+            } else if (scanner.event() == StructureScanner.VALUE_END) {
+                emit(scanned);
+            }
+        }
+        compact();
+    }
+
+    /**
+     * Parses the value that the scanner found before <code>valueEnd</code>. The scanner
+     * only ends a literal or number at a delimiter, so the value must be all of the
+     * bytes, or the input had something like <code>truex</code>.
+     */
+    private void emit(int valueEnd) {
+        lexer.reset(buffer, valueStart, valueEnd - valueStart);
+        lexer.sliceStrings = false;
+        reader.reset();
+        JsonNode value;
+        try {
+            value = reader.nextValue();
+            lexer.skipWhitespace();
+        } catch (IOException e) {
+            throw new RuntimeException("Should never happen with byte[]", e);
+        }
+        if (!lexer.finished) {
+            throw new JsonParseException("Illegal value '"
+                    + new String(buffer, valueStart, valueEnd - valueStart, StandardCharsets.UTF_8) + "'");
+        }
+        valueStart = -1;
+        consumer.accept(value);
+    }
+
+    /**
+     * Drops the bytes that are not part of an incomplete value
+     */
+    private void compact() {
+        int keepFrom = scanner.inValue() ? valueStart : length;
+        if (keepFrom > 0) {
+            System.arraycopy(buffer, keepFrom, buffer, 0, length - keepFrom);
+            length -= keepFrom;
+            scanned -= keepFrom;
+            if (valueStart >= 0) {
+                valueStart -= keepFrom;
+            }
+        }
+    }
+
+    private void ensureCapacity(int count) {
+        if (length + count > buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, length + count));
+        }
+    }
+}
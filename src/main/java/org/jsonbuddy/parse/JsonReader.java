@@ -0,0 +1,615 @@
+package org.jsonbuddy.parse;
+
+import org.jsonbuddy.JsonArray;
+import org.jsonbuddy.JsonBoolean;
+import org.jsonbuddy.JsonNode;
+import org.jsonbuddy.JsonNull;
+import org.jsonbuddy.JsonObject;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.util.Arrays;
+
+/**
+ * Reads JSON as a stream of tokens, without building a tree of JsonNodes.
+ * Use {@link #nextToken()} to step through the input, or the typed methods like
+ * {@link #nextName()}, {@link #nextString()} and {@link #nextLong()} when
+ * the structure is known. {@link #nextValue()} reads the next value
+ * as a JsonNode, which makes it possible to process large arrays one element
+ * at a time:
+ *
+ * <pre>
+ * try (JsonReader reader = new JsonReader(inputStream)) {
+ *     reader.nextToken(); // START_ARRAY
+ *     while (reader.hasNext()) {
+ *         JsonObject element = (JsonObject) reader.nextValue();
+ *     }
+ * }
+ * </pre>
+ */
+public class JsonReader implements Closeable {
+
+    private static final int EMPTY_DOCUMENT = 0;
+    private static final int NONEMPTY_DOCUMENT = 1;
+    private static final int EMPTY_ARRAY = 2;
+    private static final int NONEMPTY_ARRAY = 3;
+    private static final int EMPTY_OBJECT = 4;
+    private static final int DANGLING_NAME = 5;
+    private static final int NONEMPTY_OBJECT = 6;
+
+    /** The input is one JSON value, and anything after it is ignored */
+    static final int SINGLE_VALUE = 0;
+    /** The input is newline-delimited JSON, with one value per line */
+    static final int LINE_DELIMITED = 1;
+    /** The input is any number of JSON values, separated by optional whitespace */
+    static final int CONCATENATED = 2;
+
+    private final JsonLexer lexer;
+    private final Closeable source;
+    private final int documentMode;
+
+    private int[] scopes = new int[32];
+    private int depth = 1;
+    private JsonToken peeked;
+    private String name;
+
+    private JsonToken token;
+    private String stringValue;
+    private String numberText;
+    private Number numberValue;
+    private boolean booleanValue;
+
+    private final NumberArrayBuilder numbers = new NumberArrayBuilder();
+
+    /**
+     * Reads JSON from the Reader
+     */
+    public JsonReader(Reader reader) {
+        this(new CharLexer(reader), reader);
+    }
+
+    /**
+     * Reads UTF-8 encoded JSON from the InputStream
+     */
+    public JsonReader(InputStream inputStream) {
+        this(new Utf8Lexer(inputStream), inputStream);
+    }
+
+    /**
+     * Reads UTF-8 encoded JSON from the bytes
+     */
+    public JsonReader(byte[] bytes) {
+        this(new Utf8Lexer(bytes, 0, bytes.length), null);
+    }
+
+    JsonReader(JsonLexer lexer, Closeable source) {
+        this(lexer, source, SINGLE_VALUE);
+    }
+
+    /**
+     * With {@link #LINE_DELIMITED}, each top level value must be followed by a line
+     * break or the end of the input, and blank lines are skipped. With
+     * {@link #CONCATENATED}, values may follow each other directly, as in
+     * <code>{...}{...}</code>, or be separated by whitespace. In both modes,
+     * {@link #nextValue()} returns one top level value at a time, and null at
+     * the end of the input.
+     */
+    JsonReader(JsonLexer lexer, Closeable source, int documentMode) {
+        this.lexer = lexer;
+        this.source = source;
+        this.documentMode = documentMode;
+        scopes[0] = EMPTY_DOCUMENT;
+    }
+
+    /**
+     * Starts over at the beginning of a document, after the lexer has been
+     * reset onto new input. The scope stack is kept for reuse.
+     */
+    void reset() {
+        depth = 1;
+        scopes[0] = EMPTY_DOCUMENT;
+        peeked = null;
+        name = null;
+        token = null;
+        stringValue = null;
+        numberText = null;
+        numberValue = null;
+        numbers.trim();
+    }
+
+    /**
+     * Sets the cache that is used to share the String instances of object keys
+     * that are repeated in the document. The default is {@link JsonKeyCache#shared()}.
+     * Set to null to create a new String for every key.
+     */
+    public void setKeyCache(JsonKeyCache keyCache) {
+        lexer.keyCache = keyCache;
+    }
+
+    /**
+     * Returns the kind of the next token without consuming it
+     *
+     * @throws JsonParseException if a JSON syntax error was encountered
+     */
+    public JsonToken peek() throws IOException {
+        if (peeked == null) {
+            peeked = doPeek();
+        }
+        return peeked;
+    }
+
+    /**
+     * Returns true if the current array or object has more elements
+     */
+    public boolean hasNext() throws IOException {
+        JsonToken next = peek();
+        return next != JsonToken.END_OBJECT && next != JsonToken.END_ARRAY && next != JsonToken.END_DOCUMENT;
+    }
+
+    /**
+     * Consumes the next token and returns its kind. The value of a NAME, STRING,
+     * NUMBER or BOOLEAN token is available from {@link #stringValue()},
+     * {@link #numberValue()} or {@link #booleanValue()}.
+     *
+     * @throws JsonParseException if a JSON syntax error was encountered
+     */
+    public JsonToken nextToken() throws IOException {
+        token = peek();
+        peeked = null;
+        switch (token) {
+            case NAME:
+                stringValue = readName();
+                break;
+            case STRING:
+                stringValue = readString();
+                break;
+            case NUMBER:
+                numberText = lexer.readNumberText();
+                numberValue = null;
+                break;
+            case BOOLEAN:
+                booleanValue = lexer.readBoolean();
+                break;
+            case NULL:
+                lexer.readNull();
+                break;
+        }
+        return token;
+    }
+
+    /**
+     * The text of the current NAME or STRING token
+     */
+    public String stringValue() {
+        return stringValue;
+    }
+
+    /**
+     * The value of the current NUMBER token
+     */
+    public Number numberValue() {
+        if (numberValue == null && numberText != null) {
+            numberValue = JsonLexer.parseNumber(numberText);
+        }
+        return numberValue;
+    }
+
+    /**
+     * The value of the current BOOLEAN token
+     */
+    public boolean booleanValue() {
+        return booleanValue;
+    }
+
+    /**
+     * Consumes the next token, which must be the name of an object member
+     */
+    public String nextName() throws IOException {
+        expect(JsonToken.NAME);
+        return stringValue;
+    }
+
+    /**
+     * Consumes the next token, which must be a string
+     */
+    public String nextString() throws IOException {
+        expect(JsonToken.STRING);
+        return stringValue;
+    }
+
+    /**
+     * Consumes the next token, which must be a number
+     */
+    public Number nextNumber() throws IOException {
+        expect(JsonToken.NUMBER);
+        return numberValue();
+    }
+
+    /**
+     * Consumes the next token, which must be a number, as a long
+     */
+    public long nextLong() throws IOException {
+        return nextNumber().longValue();
+    }
+
+    /**
+     * Consumes the next token, which must be a number, as a double
+     */
+    public double nextDouble() throws IOException {
+        return nextNumber().doubleValue();
+    }
+
+    /**
+     * Consumes the next token, which must be <code>true</code> or <code>false</code>
+     */
+    public boolean nextBoolean() throws IOException {
+        expect(JsonToken.BOOLEAN);
+        return booleanValue;
+    }
+
+    /**
+     * Consumes the next token, which must be <code>null</code>
+     */
+    public void nextNull() throws IOException {
+        expect(JsonToken.NULL);
+    }
+
+    private void expect(JsonToken expected) throws IOException {
+        JsonToken next = peek();
+        if (next != expected) {
+            throw new JsonParseException("Expected " + expected + " but was " + next);
+        }
+        nextToken();
+    }
+
+    /**
+     * Skips the next value, including any nested values. If the next token
+     * is the name of an object member, both the name and the value are skipped.
+     * The skipped input is checked for syntax errors, but strings and numbers
+     * are not converted, and object keys come from the key cache, so skipping
+     * a value that has been seen before creates no objects. This makes it
+     * cheap to count the elements of an array:
+     *
+     * <pre>
+     * reader.nextToken(); // START_ARRAY
+     * int count = 0;
+     * while (reader.hasNext()) {
+     *     reader.skipValue();
+     *     count++;
+     * }
+     * </pre>
+     */
+    public void skipValue() throws IOException {
+        if (peek() == JsonToken.NAME) {
+            nextToken();
+        }
+        if (peek() == JsonToken.END_OBJECT || peek() == JsonToken.END_ARRAY) {
+            throw new JsonParseException("Expected a value but was " + peek());
+        }
+        int level = 0;
+        do {
+            switch (skipToken()) {
+                case START_OBJECT:
+                case START_ARRAY:
+                    level++;
+                    break;
+                case END_OBJECT:
+                case END_ARRAY:
+                    level--;
+                    break;
+                case END_DOCUMENT:
+                    return;
+            }
+        } while (level > 0);
+    }
+
+    /**
+     * Reads the next value as a JsonNode. Returns null at the end of the document.
+     *
+     * @throws JsonParseException if a JSON syntax error was encountered
+     */
+    public JsonNode nextValue() throws IOException {
+        if (peek() == JsonToken.STRING) {
+            token = peeked;
+            peeked = null;
+            return lexer.readStringNode();
+        }
+        switch (nextToken()) {
+            case START_OBJECT:
+                JsonObject jsonObject = new JsonObject();
+                while (peek() != JsonToken.END_OBJECT) {
+                    String key = nextName();
+                    jsonObject.put(key, nextValue());
+                }
+                nextToken();
+                return jsonObject;
+            case START_ARRAY:
+                JsonArray jsonArray = peek() == JsonToken.NUMBER ? readNumbers() : new JsonArray();
+                while (peek() != JsonToken.END_ARRAY) {
+                    jsonArray.add(nextValue());
+                }
+                nextToken();
+                return jsonArray;
+            case NUMBER:
+                return new LazyJsonNumber(numberText);
+            case BOOLEAN:
+                return JsonBoolean.valueOf(booleanValue);
+            case NULL:
+                return JsonNull.NULL;
+            case END_DOCUMENT:
+                return null;
+            default:
+                throw new JsonParseException("Expected a value but was " + token);
+        }
+    }
+
+    /**
+     * Reads the numbers at the start of an array into a <code>long[]</code> if the
+     * first number is an integer, or a <code>double[]</code> if it is a decimal, without
+     * creating a JsonNumber per element. Stops at the first element that is not a
+     * number of the same kind, or that would not be written back as the same text,
+     * and returns a JsonArray of the numbers that were read, with that element added
+     * if it was a number, for the caller to continue with.
+     */
+    private JsonArray readNumbers() throws IOException {
+        while (peek() == JsonToken.NUMBER) {
+            token = peeked;
+            peeked = null;
+            CharSequence text = lexer.readNumberChars();
+            if (!numbers.add(text)) {
+                JsonArray jsonArray = numbers.build();
+                jsonArray.add(new LazyJsonNumber(text.toString()));
+                return jsonArray;
+            }
+        }
+        return numbers.build();
+    }
+
+    /**
+     * Reads the parts of the next value that are selected by the filter as a JsonNode,
+     * and skips the rest like {@link #skipValue()}. Returns null at the end of the
+     * document, or if the value is a primitive value that is not selected.
+     *
+     * @see JsonPathFilter
+     * @throws JsonParseException if a JSON syntax error was encountered
+     */
+    public JsonNode nextValue(JsonPathFilter filter) throws IOException {
+        return nextValue(filter.root());
+    }
+
+    private JsonNode nextValue(JsonPathFilter.Node selection) throws IOException {
+        if (selection.selectsAll()) {
+            return nextValue();
+        }
+        switch (peek()) {
+            case START_OBJECT:
+                nextToken();
+                JsonObject jsonObject = new JsonObject();
+                while (peek() != JsonToken.END_OBJECT) {
+                    String key = nextName();
+                    JsonPathFilter.Node member = selection.member(key);
+                    if (member == null) {
+                        skipValue();
+                        continue;
+                    }
+                    JsonNode value = nextValue(member);
+                    if (value != null) {
+                        jsonObject.put(key, value);
+                    }
+                }
+                nextToken();
+                return jsonObject;
+            case START_ARRAY:
+                nextToken();
+                JsonArray jsonArray = new JsonArray();
+                for (int index = 0; peek() != JsonToken.END_ARRAY; index++) {
+                    JsonPathFilter.Node element = selection.element(index);
+                    if (element == null) {
+                        skipValue();
+                        continue;
+                    }
+                    JsonNode value = nextValue(element);
+                    if (value != null) {
+                        jsonArray.add(value);
+                    }
+                }
+                nextToken();
+                return jsonArray;
+            case END_DOCUMENT:
+                return null;
+            default:
+                skipValue();
+                return null;
+        }
+    }
+
+    /**
+     * Closes the underlying Reader or InputStream
+     */
+    @Override
+    public void close() throws IOException {
+        if (source != null) {
+            source.close();
+        }
+    }
+
+    /**
+     * Consumes the next token like {@link #nextToken()}, but without reading
+     * the value of strings and numbers
+     */
+    private JsonToken skipToken() throws IOException {
+        token = peek();
+        peeked = null;
+        switch (token) {
+            case NAME:
+                stringValue = readName();
+                break;
+            case STRING:
+                lexer.readNext();
+                lexer.skipText();
+                lexer.readNext();
+                stringValue = null;
+                break;
+            case NUMBER:
+                lexer.skipNumber();
+                numberText = null;
+                numberValue = null;
+                break;
+            case BOOLEAN:
+                booleanValue = lexer.readBoolean();
+                break;
+            case NULL:
+                lexer.readNull();
+                break;
+        }
+        return token;
+    }
+
+    private String readName() throws IOException {
+        lexer.readNext();
+        name = lexer.readKey();
+        lexer.readNext();
+        return name;
+    }
+
+    private String readString() throws IOException {
+        lexer.readNext();
+        String value = lexer.readText();
+        lexer.readNext();
+        return value;
+    }
+
+    private JsonToken doPeek() throws IOException {
+        switch (scopes[depth - 1]) {
+            case EMPTY_DOCUMENT:
+                scopes[depth - 1] = NONEMPTY_DOCUMENT;
+                lexer.readNext();
+                lexer.skipWhitespace();
+                if (lexer.finished) {
+                    return JsonToken.END_DOCUMENT;
+                }
+                return peekValue();
+            case NONEMPTY_DOCUMENT:
+                if (documentMode == LINE_DELIMITED) {
+                    return peekNextLine();
+                } else if (documentMode == CONCATENATED) {
+                    lexer.skipWhitespace();
+                    return lexer.finished ? JsonToken.END_DOCUMENT : peekValue();
+                }
+                return JsonToken.END_DOCUMENT;
+            case EMPTY_ARRAY:
+                scopes[depth - 1] = NONEMPTY_ARRAY;
+                return peekArrayElement();
+            case NONEMPTY_ARRAY:
+                lexer.skipWhitespace();
+                if (!lexer.finished && lexer.lastRead == ',') {
+                    lexer.readNext();
+                    return peekArrayElement();
+                }
+                if (lexer.finished || lexer.lastRead != ']') {
+                    throw new JsonParseException("Expected , or ] in array");
+                }
+                return endScope(JsonToken.END_ARRAY);
+            case EMPTY_OBJECT:
+                return peekName();
+            case NONEMPTY_OBJECT:
+                lexer.skipWhitespace();
+                if (!lexer.finished && lexer.lastRead == ',') {
+                    lexer.readNext();
+                    return peekName();
+                }
+                if (lexer.finished || lexer.lastRead != '}') {
+                    throw new JsonParseException("JsonObject not closed. Expected }");
+                }
+                return endScope(JsonToken.END_OBJECT);
+            case DANGLING_NAME:
+                lexer.skipWhitespace();
+                if (lexer.finished || lexer.lastRead != ':') {
+                    throw new JsonParseException("Expected value for objectkey " + name);
+                }
+                lexer.readNext();
+                lexer.skipWhitespace();
+                if (lexer.finished) {
+                    throw new JsonParseException("Expected value for key " + name);
+                }
+                scopes[depth - 1] = NONEMPTY_OBJECT;
+                return peekValue();
+            default:
+                throw new IllegalStateException("Unknown scope " + scopes[depth - 1]);
+        }
+    }
+
+    private JsonToken peekNextLine() throws IOException {
+        while (!lexer.finished && lexer.lastRead != '\n' && JsonLexer.isWhitespace(lexer.lastRead)) {
+            lexer.readNext();
+        }
+        if (!lexer.finished && lexer.lastRead != '\n') {
+            throw new JsonParseException("Expected line break after value, was '" + lexer.lastRead + "'");
+        }
+        lexer.skipWhitespace();
+        if (lexer.finished) {
+            return JsonToken.END_DOCUMENT;
+        }
+        return peekValue();
+    }
+
+    private JsonToken peekArrayElement() throws IOException {
+        lexer.skipWhitespace();
+        if (lexer.finished) {
+            throw new JsonParseException("Expected , or ] in array");
+        }
+        if (lexer.lastRead == ']') {
+            return endScope(JsonToken.END_ARRAY);
+        }
+        return peekValue();
+    }
+
+    private JsonToken peekName() throws IOException {
+        lexer.skipWhitespace();
+        if (!lexer.finished && lexer.lastRead == '}') {
+            return endScope(JsonToken.END_OBJECT);
+        }
+        if (lexer.finished || lexer.lastRead != '"') {
+            throw new JsonParseException("JsonObject not closed. Expected }");
+        }
+        scopes[depth - 1] = DANGLING_NAME;
+        return JsonToken.NAME;
+    }
+
+    private JsonToken endScope(JsonToken token) throws IOException {
+        lexer.readNext();
+        depth--;
+        return token;
+    }
+
+    private JsonToken peekValue() throws IOException {
+        switch (lexer.lastRead) {
+            case '{':
+                return startScope(EMPTY_OBJECT, JsonToken.START_OBJECT);
+            case '[':
+                return startScope(EMPTY_ARRAY, JsonToken.START_ARRAY);
+            case '"':
+                return JsonToken.STRING;
+            case 't':
+            case 'f':
+                return JsonToken.BOOLEAN;
+            case 'n':
+                return JsonToken.NULL;
+        }
+        if (JsonLexer.isNumberStart(lexer.lastRead)) {
+            return JsonToken.NUMBER;
+        }
+        throw new JsonParseException("Unexpected character '" + lexer.lastRead + "'");
+    }
+
+    private JsonToken startScope(int scope, JsonToken token) throws IOException {
+        if (depth == scopes.length) {
+            scopes = Arrays.copyOf(scopes, depth * 2);
+        }
+        scopes[depth++] = scope;
+        lexer.readNext();
+        return token;
+    }
+}
@@ -0,0 +1,745 @@
+package org.jsonbuddy.parse;
+
+import org.jsonbuddy.JsonArray;
+import org.jsonbuddy.JsonBoolean;
+import org.jsonbuddy.JsonConversionException;
+import org.jsonbuddy.JsonFactory;
+import org.jsonbuddy.JsonNode;
+import org.jsonbuddy.JsonNull;
+import org.jsonbuddy.JsonObject;
+import org.jsonbuddy.JsonValueNotPresentException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * A compact index over UTF-8 encoded JSON, for reading a few values out of a
+ * large document without building a tree of JsonNodes. {@link #parse(byte[])}
+ * validates the document in a single pass and records every token on a
+ * <em>tape</em>: a <code>long[]</code> with the kind of each token and a link
+ * past the end of each object and array, and an <code>int[]</code> with
+ * the position of each token in the bytes. Strings and numbers are only
+ * decoded when they are read, and skipping a nested object or array is a
+ * single jump along the tape.
+ *
+ * <pre>
+ * JsonTape.Value order = JsonTape.parse(bytes).root();
+ * String id = order.requiredString("id");
+ * long amount = order.requiredObject("total").requiredLong("amount");
+ * </pre>
+ *
+ * The values read from the tape follow the same conversion rules as
+ * {@link JsonObject}, and {@link Value#toJsonNode()} converts any part of the
+ * document to JsonNodes. The tape refers to the byte array,
+ * which must not be modified while the tape is in use.
+ */
+public class JsonTape {
+
+    private static final int OBJECT = 1;
+    private static final int OBJECT_END = 2;
+    private static final int ARRAY = 3;
+    private static final int ARRAY_END = 4;
+    private static final int STRING = 5;
+    private static final int NUMBER = 6;
+    private static final int TRUE = 7;
+    private static final int FALSE = 8;
+    private static final int NULL = 9;
+
+    private static final int TYPE_SHIFT = 56;
+    private static final long ESCAPED = 1L << 32;
+    private static final long DECIMAL = 1L << 33;
+    private static final long LENGTH_MASK = 0xFFFFFFFFL;
+
+    private static final byte[] TRUE_BYTES = "true".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] FALSE_BYTES = "false".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] NULL_BYTES = "null".getBytes(StandardCharsets.US_ASCII);
+
+    private final byte[] bytes;
+    private long[] tape;
+    private int[] offsets;
+    private int size;
+
+    private int[] stack = new int[32];
+    private int depth;
+    private NumberText numberText = new NumberText();
+
+    private JsonTape(byte[] bytes, int offset, int length) {
+        this.bytes = bytes;
+        int capacity = Math.max(16, length / 4);
+        this.tape = new long[capacity];
+        this.offsets = new int[capacity];
+        build(offset, offset + length);
+        this.stack = null;
+        this.numberText = null;
+    }
+
+    /**
+     * Indexes the UTF-8 encoded bytes
+     *
+     * @throws JsonParseException if a JSON syntax error was encountered
+     */
+    public static JsonTape parse(byte[] bytes) throws JsonParseException {
+        return parse(bytes, 0, bytes.length);
+    }
+
+    /**
+     * Indexes <code>length</code> UTF-8 encoded bytes starting at <code>offset</code>
+     *
+     * @throws JsonParseException if a JSON syntax error was encountered
+     */
+    public static JsonTape parse(byte[] bytes, int offset, int length) throws JsonParseException {
+        return new JsonTape(bytes, offset, length);
+    }
+
+    /**
+     * Indexes the JSON text
+     *
+     * @throws JsonParseException if a JSON syntax error was encountered
+     */
+    public static JsonTape parse(String input) throws JsonParseException {
+        return parse(input.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * The top level value of the document
+     */
+    public Value root() {
+        return new Value(0);
+    }
+
+    private static final int VALUE = 0;
+    private static final int AFTER_VALUE = 1;
+    private static final int ARRAY_ELEMENT = 2;
+    private static final int OBJECT_MEMBER = 3;
+
+    private void build(int from, int to) {
+        int pos = skipWhitespace(from, to);
+        if (pos == to) {
+            throw new JsonParseException("Unexpected end of input");
+        }
+        int state = VALUE;
+        while (true) {
+            pos = skipWhitespace(pos, to);
+            switch (state) {
+                case VALUE:
+                    byte b = bytes[pos];
+                    if (b == '{') {
+                        push(OBJECT, pos++);
+                        state = OBJECT_MEMBER;
+                        continue;
+                    } else if (b == '[') {
+                        push(ARRAY, pos++);
+                        state = ARRAY_ELEMENT;
+                        continue;
+                    } else if (b == '"') {
+                        pos = string(pos, to);
+                    } else if (JsonLexer.isNumberStart((char) b)) {
+                        pos = number(pos, to);
+                    } else if (b == 't') {
+                        pos = literal(pos, to, TRUE_BYTES, TRUE);
+                    } else if (b == 'f') {
+                        pos = literal(pos, to, FALSE_BYTES, FALSE);
+                    } else if (b == 'n') {
+                        pos = literal(pos, to, NULL_BYTES, NULL);
+                    } else {
+                        throw new JsonParseException("Unexpected character '" + (char) (b & 0xFF) + "'");
+                    }
+                    state = AFTER_VALUE;
+                    break;
+                case ARRAY_ELEMENT:
+                    if (pos == to) {
+                        throw new JsonParseException("Expected , or ] in array");
+                    }
+                    if (bytes[pos] == ']') {
+                        pop(ARRAY_END, pos++);
+                        state = AFTER_VALUE;
+                    } else {
+                        state = VALUE;
+                    }
+                    break;
+                case OBJECT_MEMBER:
+                    if (pos < to && bytes[pos] == '}') {
+                        pop(OBJECT_END, pos++);
+                        state = AFTER_VALUE;
+                        break;
+                    }
+                    if (pos == to || bytes[pos] != '"') {
+                        throw new JsonParseException("JsonObject not closed. Expected }");
+                    }
+                    int key = size;
+                    pos = skipWhitespace(string(pos, to), to);
+                    if (pos == to || bytes[pos] != ':') {
+                        throw new JsonParseException("Expected value for objectkey " + decodeString(key));
+                    }
+                    pos = skipWhitespace(pos + 1, to);
+                    if (pos == to) {
+                        throw new JsonParseException("Expected value for key " + decodeString(key));
+                    }
+                    state = VALUE;
+                    break;
+                case AFTER_VALUE:
+                    if (depth == 0) {
+                        return;
+                    }
+                    boolean inArray = type(stack[depth - 1]) == ARRAY;
+                    if (pos < to && bytes[pos] == ',') {
+                        pos++;
+                        state = inArray ? ARRAY_ELEMENT : OBJECT_MEMBER;
+                    } else if (inArray) {
+                        if (pos == to || bytes[pos] != ']') {
+                            throw new JsonParseException("Expected , or ] in array");
+                        }
+                        pop(ARRAY_END, pos++);
+                    } else {
+                        if (pos == to || bytes[pos] != '}') {
+                            throw new JsonParseException("JsonObject not closed. Expected }");
+                        }
+                        pop(OBJECT_END, pos++);
+                    }
+                    break;
+            }
+        }
+    }
+
+    private int skipWhitespace(int pos, int to) {
+        while (pos < to && bytes[pos] >= 0 && JsonLexer.isWhitespace((char) bytes[pos])) {
+            pos++;
+        }
+        return pos;
+    }
+
+    private int string(int start, int to) {
+        boolean escaped = false;
+        int pos = ByteScanner.indexOfQuoteOrBackslash(bytes, start + 1, to);
+        while (pos < to && bytes[pos] == '\\') {
+            escaped = true;
+            pos = ByteScanner.indexOfQuoteOrBackslash(bytes, ByteScanner.skipEscape(bytes, pos, to) + 1, to);
+        }
+        if (pos == to) {
+            throw new JsonParseException("JsonString not closed. Expected \"");
+        }
+        append(STRING, start + 1, (pos - start - 1) | (escaped ? ESCAPED : 0));
+        return pos + 1;
+    }
+
+    private int number(int start, int to) {
+        boolean isDouble = false;
+        int pos = start;
+        while (pos < to && bytes[pos] >= 0 && JsonLexer.isNumberChar((char) bytes[pos])) {
+            isDouble = isDouble || JsonLexer.isDoubleChar((char) bytes[pos]);
+            pos++;
+        }
+        if (pos < to && (bytes[pos] < 0 || !JsonLexer.isNumberEnd((char) bytes[pos]))) {
+            throw new JsonParseException("Illegal value '"
+                    + new String(bytes, start, pos + 1 - start, StandardCharsets.ISO_8859_1) + "'");
+        }
+        JsonLexer.validateNumber(numberText.of(start, pos - start));
+        append(NUMBER, start, (pos - start) | (isDouble ? DECIMAL : 0));
+        return pos;
+    }
+
+    private int literal(int start, int to, byte[] expected, int type) {
+        int count = Math.min(expected.length, to - start);
+        if (count < expected.length || !Arrays.equals(bytes, start, start + count, expected, 0, count)) {
+            throw new JsonParseException("Unexpected value " + new String(bytes, start, count, StandardCharsets.ISO_8859_1));
+        }
+        append(type, start, 0);
+        return start + count;
+    }
+
+    private void push(int type, int pos) {
+        if (depth == stack.length) {
+            stack = Arrays.copyOf(stack, depth * 2);
+        }
+        stack[depth++] = size;
+        append(type, pos, 0);
+    }
+
+    private void pop(int type, int pos) {
+        int start = stack[--depth];
+        tape[start] |= size;
+        append(type, pos, start);
+    }
+
+    private void append(int type, int offset, long payload) {
+        if (size == tape.length) {
+            tape = Arrays.copyOf(tape, size * 2);
+            offsets = Arrays.copyOf(offsets, size * 2);
+        }
+        tape[size] = ((long) type << TYPE_SHIFT) | payload;
+        offsets[size++] = offset;
+    }
+
+    private int type(int index) {
+        return (int) (tape[index] >>> TYPE_SHIFT);
+    }
+
+    private int length(int index) {
+        return (int) (tape[index] & LENGTH_MASK);
+    }
+
+    /**
+     * The tape index after the value at <code>index</code>
+     */
+    private int next(int index) {
+        int type = type(index);
+        return (type == OBJECT || type == ARRAY) ? length(index) + 1 : index + 1;
+    }
+
+    private String decodeString(int index) {
+        int offset = offsets[index];
+        int length = length(index);
+        if ((tape[index] & ESCAPED) == 0) {
+            return new String(bytes, offset, length, StandardCharsets.UTF_8);
+        }
+        return Utf8Lexer.decodeString(bytes, offset, length);
+    }
+
+    private String decodeKey(int index) {
+        if ((tape[index] & ESCAPED) != 0) {
+            return decodeString(index);
+        }
+        return JsonKeyCache.shared().get(bytes, offsets[index], length(index));
+    }
+
+    /**
+     * Compares the string at <code>index</code> with the key without decoding
+     * it, unless it contains escape sequences or non-ASCII characters
+     */
+    private boolean keyEquals(int index, String key) {
+        int length = length(index);
+        if ((tape[index] & ESCAPED) != 0) {
+            return decodeString(index).equals(key);
+        }
+        if (length < key.length()) {
+            return false;
+        }
+        int offset = offsets[index];
+        for (int i = 0; i < length; i++) {
+            byte b = bytes[offset + i];
+            if (b < 0) {
+                return decodeString(index).equals(key);
+            }
+            if (i >= key.length() || b != key.charAt(i)) {
+                return false;
+            }
+        }
+        return length == key.length();
+    }
+
+    private Number decodeNumber(int index) {
+        return JsonLexer.parseNumber(numberString(index));
+    }
+
+    private String numberString(int index) {
+        return new String(bytes, offsets[index], length(index), StandardCharsets.ISO_8859_1);
+    }
+
+    private long decodeLong(int index) {
+        int length = length(index);
+        if ((tape[index] & DECIMAL) != 0 || length > 18) {
+            return decodeNumber(index).longValue();
+        }
+        int offset = offsets[index];
+        boolean negative = bytes[offset] == '-';
+        long value = 0;
+        for (int i = negative ? 1 : 0; i < length; i++) {
+            int digit = bytes[offset + i] - '0';
+            if (digit < 0 || digit > 9) {
+                return decodeNumber(index).longValue();
+            }
+            value = value * 10 + digit;
+        }
+        return negative ? -value : value;
+    }
+
+    /**
+     * Converts the value to the same JsonNodes as {@link JsonParser} creates, with
+     * numbers that keep their text, and arrays of numbers in primitive arrays
+     */
+    private JsonNode toJsonNode(int index, NumberArrayBuilder numbers) {
+        switch (type(index)) {
+            case OBJECT:
+                JsonObject jsonObject = new JsonObject();
+                for (int i = index + 1; type(i) != OBJECT_END; i = next(i + 1)) {
+                    jsonObject.put(decodeKey(i), toJsonNode(i + 1, numbers));
+                }
+                return jsonObject;
+            case ARRAY:
+                int i = index + 1;
+                while (type(i) == NUMBER && numbers.add(numberString(i))) {
+                    i = next(i);
+                }
+                JsonArray jsonArray = numbers.build();
+                for (; type(i) != ARRAY_END; i = next(i)) {
+                    jsonArray.add(toJsonNode(i, numbers));
+                }
+                return jsonArray;
+            case STRING:
+                return JsonFactory.jsonString(decodeString(index));
+            case NUMBER:
+                return new LazyJsonNumber(numberString(index));
+            case TRUE:
+                return JsonBoolean.TRUE;
+            case FALSE:
+                return JsonBoolean.FALSE;
+            default:
+                return JsonNull.NULL;
+        }
+    }
+
+    /**
+     * The text of a number in the bytes, for checking it without creating a String
+     */
+    private class NumberText implements CharSequence {
+        private int start;
+        private int length;
+
+        NumberText of(int start, int length) {
+            this.start = start;
+            this.length = length;
+            return this;
+        }
+
+        @Override
+        public int length() {
+            return length;
+        }
+
+        @Override
+        public char charAt(int index) {
+            return (char) bytes[start + index];
+        }
+
+        @Override
+        public CharSequence subSequence(int from, int to) {
+            return toString().subSequence(from, to);
+        }
+
+        @Override
+        public String toString() {
+            return new String(bytes, start, length, StandardCharsets.ISO_8859_1);
+        }
+    }
+
+    /**
+     * A value in a JsonTape. Reading a member of an object walks over the
+     * keys of the object, jumping over the values of the other keys.
+     * <p>
+     * Like {@link JsonObject}, the methods that return an Optional return an empty Optional if
+     * the key is not present or null, and throw {@link JsonConversionException} if the value
+     * is of the wrong type. The <code>required</code> methods throw
+     * {@link JsonValueNotPresentException} if the key is not present.
+     */
+    public class Value {
+
+        private final int index;
+
+        private Value(int index) {
+            this.index = index;
+        }
+
+        public boolean isObject() {
+            return type(index) == OBJECT;
+        }
+
+        public boolean isArray() {
+            return type(index) == ARRAY;
+        }
+
+        public boolean isString() {
+            return type(index) == STRING;
+        }
+
+        public boolean isNumber() {
+            return type(index) == NUMBER;
+        }
+
+        public boolean isBoolean() {
+            return type(index) == TRUE || type(index) == FALSE;
+        }
+
+        public boolean isNull() {
+            return type(index) == NULL;
+        }
+
+        /**
+         * Returns this value as a String. Numbers and booleans are returned as their
+         * JSON text and null as null.
+         *
+         * @throws JsonConversionException if this is an object or an array
+         */
+        public String stringValue() {
+            switch (type(index)) {
+                case STRING:
+                    return decodeString(index);
+                case NUMBER:
+                    return decodeNumber(index).toString();
+                case TRUE:
+                    return "true";
+                case FALSE:
+                    return "false";
+                case NULL:
+                    return null;
+                default:
+                    throw new JsonConversionException("Can't convert " + typeName() + " to String");
+            }
+        }
+
+        /**
+         * Returns this value as a Number. Strings are parsed as doubles.
+         *
+         * @throws JsonConversionException if this is not convertible to a number
+         */
+        public Number numberValue() {
+            if (type(index) == NUMBER) {
+                return decodeNumber(index);
+            }
+            if (type(index) == STRING) {
+                try {
+                    return Double.parseDouble(decodeString(index));
+                } catch (NumberFormatException e) {
+                    throw new JsonConversionException(typeName() + " is not numeric");
+                }
+            }
+            throw new JsonConversionException(typeName() + " is not numeric");
+        }
+
+        /**
+         * Returns this value as a long. Integers are parsed straight from the bytes.
+         *
+         * @throws JsonConversionException if this is not convertible to a number
+         */
+        public long longValue() {
+            return type(index) == NUMBER ? decodeLong(index) : numberValue().longValue();
+        }
+
+        /**
+         * Returns this value as a double
+         *
+         * @throws JsonConversionException if this is not convertible to a number
+         */
+        public double doubleValue() {
+            return numberValue().doubleValue();
+        }
+
+        /**
+         * Returns this value as a boolean. Strings are converted with {@link Boolean#parseBoolean}.
+         *
+         * @throws JsonConversionException if this is not convertible to a boolean
+         */
+        public boolean booleanValue() {
+            switch (type(index)) {
+                case TRUE:
+                    return true;
+                case FALSE:
+                    return false;
+                case STRING:
+                    return Boolean.parseBoolean(decodeString(index));
+                default:
+                    throw new JsonConversionException(typeName() + " is not boolean");
+            }
+        }
+
+        /**
+         * Returns the value of the argument key or an empty Optional
+         * if the key is not present.
+         *
+         * @throws JsonConversionException if this is not an object
+         */
+        public Optional<Value> value(String key) {
+            int member = find(key);
+            return member < 0 ? Optional.empty() : Optional.of(new Value(member));
+        }
+
+        /**
+         * Returns the value of the argument key.
+         *
+         * @throws JsonValueNotPresentException if the key is not present
+         */
+        public Value requiredValue(String key) {
+            return value(key).orElseThrow(() -> keyNotPresent(key));
+        }
+
+        /**
+         * Returns true if this object has a member with the key
+         */
+        public boolean containsKey(String key) {
+            return find(key) >= 0;
+        }
+
+        /**
+         * Returns the keys of this object in document order
+         *
+         * @throws JsonConversionException if this is not an object
+         */
+        public List<String> keys() {
+            requireType(OBJECT, "JsonObject");
+            List<String> keys = new ArrayList<>();
+            for (int i = index + 1; type(i) != OBJECT_END; i = next(i + 1)) {
+                keys.add(decodeString(i));
+            }
+            return keys;
+        }
+
+        public Optional<String> stringValue(String key) {
+            return present(key).map(Value::stringValue);
+        }
+
+        public String requiredString(String key) {
+            return stringValue(key).orElseThrow(() -> keyNotPresent(key));
+        }
+
+        public Optional<Long> longValue(String key) {
+            return present(key).map(Value::longValue);
+        }
+
+        public long requiredLong(String key) {
+            return longValue(key).orElseThrow(() -> keyNotPresent(key));
+        }
+
+        public Optional<Double> doubleValue(String key) {
+            return present(key).map(Value::doubleValue);
+        }
+
+        public double requiredDouble(String key) {
+            return doubleValue(key).orElseThrow(() -> keyNotPresent(key));
+        }
+
+        public Optional<Boolean> booleanValue(String key) {
+            return present(key).map(Value::booleanValue);
+        }
+
+        public boolean requiredBoolean(String key) {
+            return booleanValue(key).orElseThrow(() -> keyNotPresent(key));
+        }
+
+        public Optional<Value> objectValue(String key) {
+            return present(key).map(v -> v.requireType(OBJECT, "JsonObject"));
+        }
+
+        public Value requiredObject(String key) {
+            return objectValue(key).orElseThrow(() -> keyNotPresent(key));
+        }
+
+        public Optional<Value> arrayValue(String key) {
+            return present(key).map(v -> v.requireType(ARRAY, "JsonArray"));
+        }
+
+        public Value requiredArray(String key) {
+            return arrayValue(key).orElseThrow(() -> keyNotPresent(key));
+        }
+
+        /**
+         * The number of elements of an array or members of an object
+         *
+         * @throws JsonConversionException if this is not an array or object
+         */
+        public int size() {
+            int count = 0;
+            if (type(index) == OBJECT) {
+                for (int i = index + 1; type(i) != OBJECT_END; i = next(i + 1)) {
+                    count++;
+                }
+                return count;
+            }
+            requireType(ARRAY, "JsonArray");
+            for (int i = index + 1; type(i) != ARRAY_END; i = next(i)) {
+                count++;
+            }
+            return count;
+        }
+
+        /**
+         * Returns the element at the position in this array
+         *
+         * @throws JsonConversionException if this is not an array
+         * @throws JsonValueNotPresentException if the position is outside the array
+         */
+        public Value get(int position) {
+            requireType(ARRAY, "JsonArray");
+            int i = index + 1;
+            for (int count = 0; type(i) != ARRAY_END; i = next(i), count++) {
+                if (count == position) {
+                    return new Value(i);
+                }
+            }
+            throw new JsonValueNotPresentException("Required index " + position + " out of bounds");
+        }
+
+        /**
+         * Returns the elements of this array
+         *
+         * @throws JsonConversionException if this is not an array
+         */
+        public List<Value> elements() {
+            requireType(ARRAY, "JsonArray");
+            List<Value> elements = new ArrayList<>();
+            for (int i = index + 1; type(i) != ARRAY_END; i = next(i)) {
+                elements.add(new Value(i));
+            }
+            return elements;
+        }
+
+        /**
+         * Builds this value and everything inside it as JsonNodes
+         */
+        public JsonNode toJsonNode() {
+            return JsonTape.this.toJsonNode(index, new NumberArrayBuilder());
+        }
+
+        @Override
+        public String toString() {
+            return toJsonNode().toJson();
+        }
+
+        private int find(String key) {
+            requireType(OBJECT, "JsonObject");
+            for (int i = index + 1; type(i) != OBJECT_END; i = next(i + 1)) {
+                if (keyEquals(i, key)) {
+                    return i + 1;
+                }
+            }
+            return -1;
+        }
+
+        private Optional<Value> present(String key) {
+            int member = find(key);
+            if (member < 0 || type(member) == NULL) {
+                return Optional.empty();
+            }
+            return Optional.of(new Value(member));
+        }
+
+        private Value requireType(int type, String name) {
+            if (type(index) != type) {
+                throw new JsonConversionException("Can't convert " + typeName() + " to " + name);
+            }
+            return this;
+        }
+
+        private String typeName() {
+            switch (type(index)) {
+                case OBJECT:
+                    return "JsonObject";
+                case ARRAY:
+                    return "JsonArray";
+                case STRING:
+                    return "JsonString";
+                case NUMBER:
+                    return "JsonNumber";
+                case NULL:
+                    return "JsonNull";
+                default:
+                    return "JsonBoolean";
+            }
+        }
+
+        private JsonValueNotPresentException keyNotPresent(String key) {
+            return new JsonValueNotPresentException(String.format("Required key '%s' does not exist", key));
+        }
+    }
+}
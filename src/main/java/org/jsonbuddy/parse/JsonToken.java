@@ -0,0 +1,19 @@
+package org.jsonbuddy.parse;
+
+/**
+ * The kinds of tokens returned by {@link JsonReader#nextToken()}
+ */
+public enum JsonToken {
+    START_OBJECT,
+    END_OBJECT,
+    START_ARRAY,
+    END_ARRAY,
+    /** The key of a member in a JSON object */
+    NAME,
+    STRING,
+    NUMBER,
+    BOOLEAN,
+    NULL,
+    /** The end of the input, or the end of the top level value */
+    END_DOCUMENT
+}
@@ -0,0 +1,196 @@
+package org.jsonbuddy.parse;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Checks that the input is a single JSON value, strictly by the grammar of
+ * RFC 8259, without creating any JsonNodes or Strings. Unlike the parser,
+ * the validator rejects trailing commas, unknown escape sequences,
+ * unescaped control characters, numbers with leading zeros, whitespace
+ * other than space, tab and line breaks, and any content after the value.
+ * <p>
+ * The nesting is tracked in an array of flags instead of on the call stack,
+ * so deeply nested input can not cause a StackOverflowError.
+ */
+class JsonValidator {
+
+    private final JsonLexer lexer;
+    private boolean[] inObject = new boolean[32];
+    private int depth;
+
+    JsonValidator(JsonLexer lexer) {
+        this.lexer = lexer;
+    }
+
+    /**
+     * @throws JsonParseException with the offset of the first error in the input
+     */
+    void validate() throws IOException {
+        lexer.readNext();
+        while (true) {
+            skipWhitespace();
+            if (lexer.finished) {
+                throw error("Expected a value");
+            }
+            switch (lexer.lastRead) {
+                case '{':
+                    lexer.readNext();
+                    skipWhitespace();
+                    if (!lexer.finished && lexer.lastRead == '}') {
+                        lexer.readNext();
+                        break;
+                    }
+                    push(true);
+                    readName();
+                    continue;
+                case '[':
+                    lexer.readNext();
+                    skipWhitespace();
+                    if (!lexer.finished && lexer.lastRead == ']') {
+                        lexer.readNext();
+                        break;
+                    }
+                    push(false);
+                    continue;
+                case '"':
+                    readString();
+                    break;
+                case 't':
+                case 'f':
+                    readLiteral(lexer.lastRead == 't' ? "true" : "false");
+                    break;
+                case 'n':
+                    readLiteral("null");
+                    break;
+                default:
+                    readNumber();
+            }
+            if (!readSeparator()) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Reads the whitespace and closing brackets after a value, until the
+     * next value is due. Returns false at the end of the top level value.
+     */
+    private boolean readSeparator() throws IOException {
+        while (true) {
+            skipWhitespace();
+            if (depth == 0) {
+                if (!lexer.finished) {
+                    throw error("Unexpected content after value '" + lexer.lastRead + "'");
+                }
+                return false;
+            }
+            boolean object = inObject[depth - 1];
+            if (!lexer.finished && lexer.lastRead == ',') {
+                lexer.readNext();
+                skipWhitespace();
+                if (object) {
+                    readName();
+                }
+                return true;
+            }
+            if (lexer.finished || lexer.lastRead != (object ? '}' : ']')) {
+                throw error(object ? "JsonObject not closed. Expected }" : "Expected , or ] in array");
+            }
+            lexer.readNext();
+            depth--;
+        }
+    }
+
+    private void readName() throws IOException {
+        if (lexer.finished || lexer.lastRead != '"') {
+            throw error("Expected object key");
+        }
+        readString();
+        skipWhitespace();
+        if (lexer.finished || lexer.lastRead != ':') {
+            throw error("Expected : after object key");
+        }
+        lexer.readNext();
+    }
+
+    private void readString() throws IOException {
+        lexer.readNext();
+        lexer.validateText();
+        lexer.readNext();
+    }
+
+    private void readLiteral(String literal) throws IOException {
+        long start = lexer.position();
+        for (int i = 0; i < literal.length(); i++) {
+            if (lexer.finished || lexer.lastRead != literal.charAt(i)) {
+                throw new JsonParseException("Unexpected value, expected " + literal, start);
+            }
+            lexer.readNext();
+        }
+    }
+
+    private void readNumber() throws IOException {
+        long start = lexer.position();
+        if (lexer.lastRead == '-') {
+            lexer.readNext();
+        }
+        if (lexer.finished || !isDigit(lexer.lastRead)) {
+            throw start == lexer.position()
+                    ? error("Unexpected character '" + lexer.lastRead + "'")
+                    : new JsonParseException("Illegal number", start);
+        }
+        if (lexer.lastRead == '0') {
+            lexer.readNext();
+        } else {
+            skipDigits();
+        }
+        if (!lexer.finished && lexer.lastRead == '.') {
+            lexer.readNext();
+            if (lexer.finished || !isDigit(lexer.lastRead)) {
+                throw new JsonParseException("Illegal number", start);
+            }
+            skipDigits();
+        }
+        if (!lexer.finished && (lexer.lastRead == 'e' || lexer.lastRead == 'E')) {
+            lexer.readNext();
+            if (!lexer.finished && (lexer.lastRead == '+' || lexer.lastRead == '-')) {
+                lexer.readNext();
+            }
+            if (lexer.finished || !isDigit(lexer.lastRead)) {
+                throw new JsonParseException("Illegal number", start);
+            }
+            skipDigits();
+        }
+        if (!lexer.finished && (isDigit(lexer.lastRead) || JsonLexer.isNumberChar(lexer.lastRead))) {
+            throw new JsonParseException("Illegal number", start);
+        }
+    }
+
+    private void skipDigits() throws IOException {
+        while (!lexer.finished && isDigit(lexer.lastRead)) {
+            lexer.readNext();
+        }
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private void skipWhitespace() throws IOException {
+        while (!lexer.finished && (lexer.lastRead == ' ' || lexer.lastRead == '\n' || lexer.lastRead == '\r' || lexer.lastRead == '\t')) {
+            lexer.readNext();
+        }
+    }
+
+    private void push(boolean object) {
+        if (depth == inObject.length) {
+            inObject = Arrays.copyOf(inObject, depth * 2);
+        }
+        inObject[depth++] = object;
+    }
+
+    private JsonParseException error(String message) {
+        return new JsonParseException(message, lexer.position());
+    }
+}
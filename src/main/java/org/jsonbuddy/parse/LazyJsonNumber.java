@@ -0,0 +1,40 @@
+package org.jsonbuddy.parse;
+
+import org.jsonbuddy.JsonNumber;
+
+import java.io.PrintWriter;
+
+/**
+ * A JsonNumber created by the parser. It keeps the text of the number
+ * as it was in the input and only converts it to a Long, Double or
+ * BigDecimal when the value is used. {@link #toJson} writes the original
+ * text, so numbers that are passed through are never converted and
+ * keep all their digits.
+ */
+class LazyJsonNumber extends JsonNumber {
+
+    private final String text;
+    private Number value;
+
+    /**
+     * @param text a number that has been checked with {@link JsonLexer#validateNumber}
+     */
+    LazyJsonNumber(String text) {
+        this.text = text;
+    }
+
+    @Override
+    public Number javaObjectValue() {
+        Number value = this.value;
+        if (value == null) {
+            value = JsonLexer.parseNumber(text);
+            this.value = value;
+        }
+        return value;
+    }
+
+    @Override
+    public void toJson(PrintWriter printWriter, String currentIntentation, String indentationAmount) {
+        printWriter.append(text);
+    }
+}
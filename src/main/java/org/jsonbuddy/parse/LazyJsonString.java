@@ -0,0 +1,64 @@
+package org.jsonbuddy.parse;
+
+import org.jsonbuddy.JsonString;
+
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * A JsonString created by the parser that keeps a copy of its UTF-8 encoded
+ * contents and only decodes them, including escape sequences, when
+ * {@link #stringValue()} is first called. Until then, {@link #toJson} writes
+ * the original contents without escaping them again, as long as they contain
+ * no escape sequences or control characters.
+ * <p>
+ * The contents are copied out of the parsed byte[], so the caller can reuse
+ * the byte[] afterwards, and a short string does not keep a large input alive.
+ */
+class LazyJsonString extends JsonString {
+
+    private final byte[] bytes;
+    private final int length;
+    private String value;
+
+    /**
+     * Copies the contents and the closing quote that follows them, where
+     * {@link Utf8Lexer#decodeString} stops
+     */
+    LazyJsonString(byte[] bytes, int offset, int length) {
+        this.bytes = Arrays.copyOfRange(bytes, offset, offset + length + 1);
+        this.length = length;
+    }
+
+    @Override
+    public String stringValue() {
+        String value = this.value;
+        if (value == null) {
+            value = Utf8Lexer.decodeString(bytes, 0, length);
+            this.value = value;
+        }
+        return value;
+    }
+
+    @Override
+    public void toJson(PrintWriter printWriter, String currentIntentation, String indentationAmount) {
+        if (value != null || !isPlain()) {
+            super.toJson(printWriter, currentIntentation, indentationAmount);
+            return;
+        }
+        printWriter.append('"');
+        printWriter.append(new String(bytes, 0, length, StandardCharsets.UTF_8));
+        printWriter.append('"');
+    }
+
+    private boolean isPlain() {
+        for (int i = 0; i < length; i++) {
+            byte b = bytes[i];
+            if (b == '\\' || (b >= 0 && b < ' ')) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
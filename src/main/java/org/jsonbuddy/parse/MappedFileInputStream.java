@@ -0,0 +1,83 @@
+package org.jsonbuddy.parse;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Reads a file through read-only memory mappings. The file is mapped one
+ * segment at a time, as a single mapping is limited to 2 GB, and bytes are
+ * copied straight from the page cache into the caller's buffer.
+ */
+class MappedFileInputStream extends InputStream {
+
+    private static final long SEGMENT_SIZE = 1L << 30;
+
+    private final FileChannel channel;
+    private final long size;
+    private final boolean ownsChannel;
+    private long mappedUntil;
+    private MappedByteBuffer segment;
+
+    MappedFileInputStream(Path path) throws IOException {
+        this.channel = FileChannel.open(path, StandardOpenOption.READ);
+        this.size = channel.size();
+        this.ownsChannel = true;
+    }
+
+    /**
+     * Reads the bytes of the channel from position <code>from</code> up to <code>to</code>.
+     * The channel is shared and is not closed with this stream.
+     */
+    MappedFileInputStream(FileChannel channel, long from, long to) {
+        this.channel = channel;
+        this.size = to;
+        this.mappedUntil = from;
+        this.ownsChannel = false;
+    }
+
+    private boolean nextSegment() throws IOException {
+        if (segment != null && segment.hasRemaining()) {
+            return true;
+        }
+        if (mappedUntil >= size) {
+            return false;
+        }
+        long length = Math.min(SEGMENT_SIZE, size - mappedUntil);
+        segment = channel.map(FileChannel.MapMode.READ_ONLY, mappedUntil, length);
+        mappedUntil += length;
+        return true;
+    }
+
+    @Override
+    public int read() throws IOException {
+        if (!nextSegment()) {
+            return -1;
+        }
+        return segment.get() & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        if (len == 0) {
+            return 0;
+        }
+        if (!nextSegment()) {
+            return -1;
+        }
+        int count = Math.min(len, segment.remaining());
+        segment.get(b, off, count);
+        return count;
+    }
+
+    @Override
+    public void close() throws IOException {
+        segment = null;
+        if (ownsChannel) {
+            channel.close();
+        }
+    }
+}
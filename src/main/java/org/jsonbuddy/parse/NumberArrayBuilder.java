@@ -0,0 +1,83 @@
+package org.jsonbuddy.parse;
+
+import org.jsonbuddy.JsonArray;
+
+import java.util.Arrays;
+
+/**
+ * Collects the numbers at the start of a JSON array into a <code>long[]</code>
+ * if the first number is an integer, or a <code>double[]</code> if it is a
+ * decimal, so the array can be created without a JsonNumber per element.
+ * A number is only accepted if it is of the same kind as the first, and if
+ * it is written back as the same text, so arrays that are read this way are
+ * written exactly as they were parsed. The buffers are reused for the next array.
+ */
+class NumberArrayBuilder {
+
+    /** The largest buffers that are kept for the next array */
+    private static final int MAX_RETAINED_NUMBERS = 8 * 1024;
+
+    private long[] longs = new long[64];
+    private double[] doubles = new double[64];
+    private boolean integers;
+    private int count;
+
+    /**
+     * Adds the number, or returns false if it can not be stored with the
+     * numbers before it, and must be added to the array as a JsonNode
+     *
+     * @param text a number that has been checked with {@link JsonLexer#validateNumber}
+     */
+    boolean add(CharSequence text) {
+        Number value = JsonLexer.parseNumber(text);
+        if (!JsonLexer.isWrittenAs(value, text)) {
+            return false;
+        }
+        if (count == 0) {
+            integers = value instanceof Long;
+        }
+        if (integers && value instanceof Long) {
+            if (count == longs.length) {
+                longs = Arrays.copyOf(longs, count * 2);
+            }
+            longs[count++] = (Long) value;
+            return true;
+        } else if (!integers && value instanceof Double) {
+            if (count == doubles.length) {
+                doubles = Arrays.copyOf(doubles, count * 2);
+            }
+            doubles[count++] = (Double) value;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Returns a JsonArray with the numbers that have been added, and starts over
+     */
+    JsonArray build() {
+        JsonArray jsonArray;
+        if (count == 0) {
+            jsonArray = new JsonArray();
+        } else if (integers) {
+            jsonArray = JsonArray.ofLongs(longs, 0, count);
+        } else {
+            jsonArray = JsonArray.ofDoubles(doubles, 0, count);
+        }
+        count = 0;
+        return jsonArray;
+    }
+
+    /**
+     * Drops buffers that have grown large, before the builder is kept for another document
+     */
+    void trim() {
+        count = 0;
+        if (longs.length > MAX_RETAINED_NUMBERS) {
+            longs = new long[64];
+        }
+        if (doubles.length > MAX_RETAINED_NUMBERS) {
+            doubles = new double[64];
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package org.jsonbuddy.parse;
+
+import org.jsonbuddy.JsonArray;
+import org.jsonbuddy.JsonNode;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * Parses a file with a large top level array on several threads. A single
+ * thread scans the file with a {@link StructureScanner} to find where the
+ * elements start and end, and hands each batch of about 1 MB of consecutive
+ * elements to the ForkJoinPool as soon as it is found. The batches are
+ * joined in order, so the elements keep their position in the array.
+ */
+class ParallelArrayParser {
+
+    private static final int SCAN_BUFFER_SIZE = 1 << 20;
+    private static final long BATCH_SIZE = 1 << 20;
+
+    private static final byte[] OPEN = { '[' };
+    private static final byte[] CLOSE = { ']' };
+
+    private final FileChannel channel;
+    private final ForkJoinPool pool;
+    private final List<ForkJoinTask<JsonArray>> batches = new ArrayList<>();
+
+    ParallelArrayParser(FileChannel channel, ForkJoinPool pool) {
+        this.channel = channel;
+        this.pool = pool;
+    }
+
+    JsonArray parse() throws IOException {
+        try {
+            scan();
+            List<JsonNode> elements = new ArrayList<>();
+            for (ForkJoinTask<JsonArray> batch : batches) {
+                batch.join().forEach(elements::add);
+            }
+            return JsonArray.fromNodeList(elements);
+        } catch (IOException | RuntimeException e) {
+            batches.forEach(batch -> batch.cancel(false));
+            throw e;
+        }
+    }
+
+    private void scan() throws IOException {
+        StructureScanner scanner = new StructureScanner(true);
+        byte[] buffer = new byte[SCAN_BUFFER_SIZE];
+        long size = channel.size();
+        long base = 0;
+        long batchStart = -1;
+        long batchEnd = -1;
+        boolean started = false;
+        while (base < size) {
+            int count = channel.read(ByteBuffer.wrap(buffer), base);
+            if (count <= 0) {
+                break;
+            }
+            int position = 0;
+            while (position < count) {
+                position = scanner.scan(buffer, position, count);
+                switch (scanner.event()) {
+                    case StructureScanner.ARRAY_START:
+                        started = true;
+                        break;
+                    case StructureScanner.VALUE_START:
+                        if (batchStart < 0) {
+                            batchStart = base + position - 1;
+                        }
+                        break;
+                    case StructureScanner.VALUE_END:
+                        batchEnd = base + position;
+                        if (batchEnd - batchStart >= BATCH_SIZE) {
+                            submit(batchStart, batchEnd);
+                            batchStart = -1;
+                        }
+                        break;
+                    case StructureScanner.ARRAY_END:
+                        if (batchStart >= 0) {
+                            submit(batchStart, batchEnd);
+                        }
+                        return;
+                }
+            }
+            base += count;
+        }
+        scanner.endScalar();
+        scanner.finish();
+        throw new JsonParseException(started ? "Expected , or ] in array" : "Expected JSON array got null");
+    }
+
+    /**
+     * Parses the elements from <code>start</code> to <code>end</code>, with the
+     * commas between them, as an array of their own
+     */
+    private void submit(long start, long end) {
+        batches.add(pool.submit(() -> {
+            InputStream elements = new SequenceInputStream(Collections.enumeration(Arrays.asList(
+                    new ByteArrayInputStream(OPEN),
+                    new MappedFileInputStream(channel, start, end),
+                    new ByteArrayInputStream(CLOSE))));
+            try {
+                return (JsonArray) JsonParser.parse(elements);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }));
+    }
+}
@@ -0,0 +1,200 @@
+package org.jsonbuddy.parse;
+
+/**
+ * Finds where JSON values start and end in UTF-8 bytes by tracking bracket
+ * depth and string state, without parsing the values. The state is kept
+ * between calls to {@link #scan}, so the input can arrive in pieces.
+ * <p>
+ * In <em>unwrap</em> mode, the elements of a top level array are reported
+ * as separate values instead of the array itself, between an ARRAY_START
+ * and an ARRAY_END event for the brackets. Any other top level value, or
+ * anything but whitespace after the array, is an error.
+ */
+class StructureScanner {
+
+    static final int NONE = 0;
+    static final int VALUE_START = 1;
+    static final int VALUE_END = 2;
+    static final int ARRAY_START = 3;
+    static final int ARRAY_END = 4;
+
+    private final boolean unwrap;
+
+    private int depth;
+    private boolean inValue;
+    private int valueDepth;
+    private boolean inString;
+    private boolean escaped;
+    private boolean inScalar;
+    private boolean inWrapper;
+    private boolean expectSeparator;
+    private boolean unwrapped;
+    private int event;
+
+    StructureScanner(boolean unwrap) {
+        this.unwrap = unwrap;
+    }
+
+    /**
+     * The boundary found by the last call to {@link #scan}: {@link #VALUE_START},
+     * {@link #VALUE_END}, {@link #ARRAY_START} or {@link #ARRAY_END} in unwrap mode,
+     * or {@link #NONE} if the end of the input was reached.
+     */
+    int event() {
+        return event;
+    }
+
+    boolean inValue() {
+        return inValue;
+    }
+
+    /**
+     * Scans <code>bytes[from..to)</code> until a value starts or ends.
+     *
+     * @return the position to continue scanning from. After a VALUE_START the value
+     *    started at the position before this, and after a VALUE_END the value ended
+     *    just before this position. After ARRAY_START and ARRAY_END, the bracket
+     *    is the position before this.
+     * @throws JsonParseException if the bytes cannot be a sequence of JSON values
+     */
+    int scan(byte[] bytes, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (inString) {
+                if (escaped) {
+                    escaped = false;
+                    continue;
+                }
+                i = ByteScanner.indexOfQuoteOrBackslash(bytes, i, to);
+                if (i == to) {
+                    break;
+                }
+                if (bytes[i] == '\\') {
+                    escaped = true;
+                } else {
+                    inString = false;
+                    if (depth == valueDepth) {
+                        return endValue(i + 1);
+                    }
+                }
+                continue;
+            }
+            byte b = bytes[i];
+            if (inScalar) {
+                if (!endsScalar(b)) {
+                    continue;
+                }
+                inScalar = false;
+                return endValue(i);
+            }
+            if (b == ' ' || b == '\n' || b == '\r' || b == '\t') {
+                continue;
+            }
+            if (inValue) {
+                if (b == '"') {
+                    inString = true;
+                } else if (b == '{' || b == '[') {
+                    depth++;
+                } else if (b == '}' || b == ']') {
+                    depth--;
+                    if (depth == valueDepth) {
+                        return endValue(i + 1);
+                    }
+                }
+                continue;
+            }
+            if (inWrapper) {
+                if (b == ']') {
+                    inWrapper = false;
+                    unwrapped = true;
+                    expectSeparator = false;
+                    depth--;
+                    event = ARRAY_END;
+                    return i + 1;
+                }
+                if (expectSeparator) {
+                    if (b != ',') {
+                        throw new JsonParseException("Expected , or ] in array");
+                    }
+                    expectSeparator = false;
+                    continue;
+                }
+            } else if (unwrap) {
+                if (unwrapped) {
+                    throw new JsonParseException("Unexpected character '" + (char) b + "' after array");
+                } else if (b != '[') {
+                    throw new JsonParseException("Expected JSON array got '" + (char) b + "'");
+                }
+                inWrapper = true;
+                depth++;
+                event = ARRAY_START;
+                return i + 1;
+            }
+            if (b == '}' || b == ']' || b == ',' || b == ':') {
+                throw new JsonParseException("Unexpected character '" + (char) b + "'");
+            }
+            inValue = true;
+            valueDepth = depth;
+            if (b == '"') {
+                inString = true;
+            } else if (b == '{' || b == '[') {
+                depth++;
+            } else {
+                inScalar = true;
+            }
+            event = VALUE_START;
+            return i + 1;
+        }
+        event = NONE;
+        return to;
+    }
+
+    /**
+     * Ends a value that ends with the input, like a top level number, and
+     * returns true if there was one. Call {@link #finish()} after this.
+     */
+    boolean endScalar() {
+        if (inScalar) {
+            inScalar = false;
+            inValue = false;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Signals that there is no more input
+     *
+     * @throws JsonParseException if the input ended inside a value or inside
+     *    the array in unwrap mode
+     */
+    void finish() {
+        unwrapped = false;
+        if (inString) {
+            throw new JsonParseException("JsonString not closed. Expected \"");
+        }
+        if (inWrapper) {
+            throw new JsonParseException("Expected , or ] in array");
+        }
+        if (inValue) {
+            throw new JsonParseException("Unexpected end of input");
+        }
+    }
+
+    private int endValue(int end) {
+        inValue = false;
+        expectSeparator = inWrapper;
+        event = VALUE_END;
+        return end;
+    }
+
+    private static boolean endsScalar(byte b) {
+        switch (b) {
+            case ' ': case '\n': case '\r': case '\t':
+            case ',': case ':': case '"':
+            case '{': case '}': case '[': case ']':
+                return true;
+            default:
+                return false;
+        }
+    }
+}
@@ -0,0 +1,323 @@
+package org.jsonbuddy.parse;
+
+import org.jsonbuddy.JsonString;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Lexer that works directly on UTF-8 encoded bytes, either from a
+ * byte[] or read in blocks from an InputStream. Structural characters
+ * are handled as ASCII, and only string contents are decoded to chars.
+ * Malformed input is replaced with U+FFFD, as InputStreamReader does.
+ */
+class Utf8Lexer extends JsonLexer {
+
+    private static final int BUFFER_SIZE = 8192;
+    private static final char REPLACEMENT = '\uFFFD';
+    private static final int LAZY_STRING_LENGTH = 64;
+
+    private InputStream input;
+    private byte[] buffer;
+    private byte[] streamBuffer;
+    private int pos;
+    private int limit;
+    private long bufferStart;
+    private long leadOffset;
+    private boolean malformed;
+    private char pendingLowSurrogate;
+    private char[] chars = new char[64];
+    boolean sliceStrings;
+
+    Utf8Lexer(byte[] bytes, int offset, int length) {
+        reset(bytes, offset, length);
+    }
+
+    Utf8Lexer(InputStream input) {
+        reset(input);
+    }
+
+    /**
+     * Starts reading from the bytes. The buffer for InputStreams is kept for later use.
+     */
+    void reset(byte[] bytes, int offset, int length) {
+        this.input = null;
+        this.buffer = bytes;
+        this.pos = offset;
+        this.limit = offset + length;
+        this.bufferStart = -offset;
+        this.sliceStrings = true;
+        resetDecoder();
+    }
+
+    /**
+     * Starts reading from the InputStream, reusing the buffer from earlier InputStreams
+     */
+    void reset(InputStream input) {
+        if (streamBuffer == null && input != null) {
+            streamBuffer = new byte[BUFFER_SIZE];
+        }
+        this.input = input;
+        this.buffer = streamBuffer;
+        this.pos = 0;
+        this.limit = 0;
+        this.bufferStart = 0;
+        this.sliceStrings = false;
+        resetDecoder();
+    }
+
+    @Override
+    void trimScratch(int maxRetained) {
+        super.trimScratch(maxRetained);
+        if (chars.length > maxRetained) {
+            chars = new char[64];
+        }
+    }
+
+    private void resetDecoder() {
+        pendingLowSurrogate = 0;
+        malformed = false;
+        reset();
+    }
+
+    /**
+     * Decodes the contents of a string, including escape sequences. The
+     * closing quote must be at <code>bytes[offset + length]</code>.
+     */
+    static String decodeString(byte[] bytes, int offset, int length) {
+        Utf8Lexer lexer = new Utf8Lexer(bytes, offset, length + 1);
+        try {
+            lexer.readNext();
+            return lexer.readText();
+        } catch (IOException e) {
+            throw new RuntimeException("Should never happen with byte[]", e);
+        }
+    }
+
+    /**
+     * When parsing from a byte[], long strings are not decoded, but returned as a
+     * {@link LazyJsonString} with a copy of their bytes. Shorter strings and strings
+     * read from an InputStream, which may not be in the buffer in one piece, are
+     * decoded as usual.
+     */
+    @Override
+    JsonString readStringNode() throws IOException {
+        if (sliceStrings) {
+            int start = pos;
+            int end = ByteScanner.indexOfStringEnd(buffer, start, limit);
+            if (end == limit) {
+                throw new JsonParseException("JsonString not closed. Expected \"");
+            }
+            if (end - start >= LAZY_STRING_LENGTH) {
+                pos = end + 1;
+                readNext();
+                return new LazyJsonString(buffer, start, end - start);
+            }
+        }
+        return super.readStringNode();
+    }
+
+    @Override
+    void readNext() throws IOException {
+        if (pos >= limit && !refill()) {
+            finished = true;
+            return;
+        }
+        byte b = buffer[pos++];
+        lastRead = b >= 0 ? (char) b : decode(b & 0xFF);
+    }
+
+    private boolean refill() throws IOException {
+        if (input == null) {
+            return false;
+        }
+        int read;
+        do {
+            read = input.read(buffer, 0, buffer.length);
+        } while (read == 0);
+        if (read == -1) {
+            return false;
+        }
+        bufferStart += limit;
+        pos = 0;
+        limit = read;
+        return true;
+    }
+
+    @Override
+    long position() {
+        if (finished) {
+            return bufferStart + pos;
+        }
+        return lastRead < 0x80 ? bufferStart + pos - 1 : leadOffset;
+    }
+
+    /**
+     * Decodes a multibyte sequence starting with the lead byte. Code points
+     * outside the Basic Multilingual Plane are returned as the high surrogate,
+     * with the low surrogate kept for {@link #readText()}.
+     */
+    private char decode(int lead) throws IOException {
+        leadOffset = bufferStart + pos - 1;
+        if (lead >= 0xC2 && lead <= 0xDF) {
+            int c1 = readContinuation();
+            return c1 < 0 ? malformed() : (char) (((lead & 0x1F) << 6) | c1);
+        } else if (lead >= 0xE0 && lead <= 0xEF) {
+            int c1 = readContinuation();
+            int c2 = c1 < 0 ? -1 : readContinuation();
+            if (c2 < 0) {
+                return malformed();
+            }
+            int codePoint = ((lead & 0x0F) << 12) | (c1 << 6) | c2;
+            if (codePoint < 0x800 || Character.isSurrogate((char) codePoint)) {
+                return malformed();
+            }
+            return (char) codePoint;
+        } else if (lead >= 0xF0 && lead <= 0xF4) {
+            int c1 = readContinuation();
+            int c2 = c1 < 0 ? -1 : readContinuation();
+            int c3 = c2 < 0 ? -1 : readContinuation();
+            if (c3 < 0) {
+                return malformed();
+            }
+            int codePoint = ((lead & 0x07) << 18) | (c1 << 12) | (c2 << 6) | c3;
+            if (codePoint < 0x10000 || codePoint > Character.MAX_CODE_POINT) {
+                return malformed();
+            }
+            pendingLowSurrogate = Character.lowSurrogate(codePoint);
+            return Character.highSurrogate(codePoint);
+        }
+        return malformed();
+    }
+
+    private char malformed() {
+        malformed = true;
+        return REPLACEMENT;
+    }
+
+    private int readContinuation() throws IOException {
+        if (pos >= limit && !refill()) {
+            return -1;
+        }
+        int b = buffer[pos];
+        if ((b & 0xC0) != 0x80) {
+            return -1;
+        }
+        pos++;
+        return b & 0x3F;
+    }
+
+    /**
+     * Decodes the string contents. If the closing quote is in the buffer
+     * and there is no escape sequence before it, the String is created straight
+     * from the bytes. Otherwise, the contents are decoded into a reusable char[],
+     * copying runs of ASCII bytes without going through {@link #readNext()}.
+     */
+    @Override
+    String readText() throws IOException {
+        return readText(null);
+    }
+
+    @Override
+    String readKey() throws IOException {
+        return readText(keyCache);
+    }
+
+    /**
+     * Jumps over runs of plain bytes, which need no decoding when the
+     * string is skipped.
+     */
+    @Override
+    void skipText() throws IOException {
+        while (!finished) {
+            if (lastRead == '"') {
+                return;
+            }
+            if (lastRead == '\\') {
+                readEscape();
+            }
+            pendingLowSurrogate = 0;
+            pos = ByteScanner.indexOfQuoteOrBackslash(buffer, pos, limit);
+            readNext();
+        }
+        throw new JsonParseException("JsonString not closed. Expected \"");
+    }
+
+    /**
+     * Jumps over runs of printable ASCII, and also rejects malformed UTF-8,
+     * which is otherwise replaced with U+FFFD.
+     */
+    @Override
+    void validateText() throws IOException {
+        while (!finished) {
+            long start = position();
+            if (lastRead == '"') {
+                return;
+            } else if (lastRead == '\\') {
+                validateEscape();
+            } else if (lastRead < ' ') {
+                throw new JsonParseException("Unescaped control character in string", start);
+            } else if (malformed) {
+                throw new JsonParseException("Malformed UTF-8", start);
+            }
+            pendingLowSurrogate = 0;
+            pos = ByteScanner.indexOfSpecialByte(buffer, pos, limit);
+            readNext();
+        }
+        throw new JsonParseException("JsonString not closed. Expected \"", position());
+    }
+
+    private String readText(JsonKeyCache cache) throws IOException {
+        if (!finished && lastRead < 0x80 && lastRead != '"' && lastRead != '\\') {
+            int start = pos - 1;
+            int end = ByteScanner.indexOfQuoteOrBackslash(buffer, pos, limit);
+            if (end < limit && buffer[end] == '"') {
+                pos = end + 1;
+                lastRead = '"';
+                return cache != null
+                        ? cache.get(buffer, start, end - start)
+                        : new String(buffer, start, end - start, StandardCharsets.UTF_8);
+            }
+        }
+        int count = 0;
+        while (!finished) {
+            char c = lastRead;
+            if (c == '"') {
+                return new String(chars, 0, count);
+            }
+            if (c == '\\') {
+                int escaped = readEscape();
+                if (escaped >= 0) {
+                    count = append(count, (char) escaped);
+                }
+            } else {
+                count = append(count, c);
+                if (Character.isHighSurrogate(c) && pendingLowSurrogate != 0) {
+                    count = append(count, pendingLowSurrogate);
+                }
+            }
+            pendingLowSurrogate = 0;
+
+            int end = ByteScanner.indexOfQuoteBackslashOrNonAscii(buffer, pos, limit);
+            if (count + end - pos > chars.length) {
+                chars = Arrays.copyOf(chars, Math.max(chars.length * 2, count + end - pos));
+            }
+            for (int i = pos; i < end; i++) {
+                chars[count++] = (char) buffer[i];
+            }
+            pos = end;
+            readNext();
+        }
+        throw new JsonParseException("JsonString not closed. Expected \"");
+    }
+
+    private int append(int count, char c) {
+        if (count == chars.length) {
+            chars = Arrays.copyOf(chars, chars.length * 2);
+        }
+        chars[count] = c;
+        return count + 1;
+    }
+}
@@ -94,14 +94,14 @@ public class JsonGenerator {
     {
         addConverter(String.class, JsonString::new);
         addConverter(Number.class, JsonNumber::new);
-        addConverter(Boolean.class, JsonBoolean::new);
+        addConverter(Boolean.class, JsonBoolean::valueOf);
         addConverter(Enum.class, o -> new JsonString(o.toString()));
         addConverter(UUID.class, o -> new JsonString(o.toString()));
         addConverter(URL.class, o -> new JsonString(o.toString()));
         addConverter(URI.class, o -> new JsonString(o.toString()));
         addConverter(InetAddress.class, o -> new JsonString(o.getHostName()));
         addConverter(Temporal.class, o -> new JsonString(o.toString()));
-        addConverter(Optional.class, o -> (JsonNode) o.map(this::generateNode).orElse(new JsonNull()));
+        addConverter(Optional.class, o -> (JsonNode) o.map(this::generateNode).orElse(JsonNull.NULL));
     }
 
     public <T> void addConverter(Class<T> sourceClass, Function<T, JsonNode> converter) {
@@ -120,7 +120,7 @@ public class JsonGenerator {
 
     public JsonNode generateNode(Object object, Optional<Type> objectType) {
         if (object == null) {
-            return new JsonNull();
+            return JsonNull.NULL;
         }
         if (object instanceof JsonNode) {
             return (JsonNode) object;
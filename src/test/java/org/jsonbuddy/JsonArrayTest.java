@@ -244,6 +244,104 @@ public class JsonArrayTest {
         assertThat(a.objects(n -> n.requiredString("number"))).containsExactly("one","two");
     }
 
+    @Test
+    public void shouldStoreParsedNumbersAsPrimitives() {
+        JsonArray integers = JsonArray.parse("[1, -2, 3]");
+        assertThat(integers).isEqualTo(new JsonArray().add(1).add(-2).add(3));
+        assertThat(integers.hashCode()).isEqualTo(new JsonArray().add(1).add(-2).add(3).hashCode());
+        assertThat(integers.longArray()).containsExactly(1L, -2L, 3L);
+        assertThat(integers.requiredLong(1)).isEqualTo(-2L);
+        assertThat(integers.toJson()).isEqualTo("[1,-2,3]");
+
+        JsonArray decimals = JsonArray.parse("[1.5, 2.25, -0.5]");
+        assertThat(decimals).isEqualTo(JsonArray.ofDoubles(1.5, 2.25, -0.5));
+        assertThat(decimals.hashCode()).isEqualTo(new JsonArray().add(1.5).add(2.25).add(-0.5).hashCode());
+        assertThat(decimals.doubleArray()).containsExactly(1.5, 2.25, -0.5);
+        assertThat(decimals.requiredDouble(2)).isEqualTo(-0.5);
+        assertThat(decimals.deepClone()).isEqualTo(decimals);
+    }
+
+    @Test
+    public void shouldWriteParsedNumbersInArraysVerbatim() {
+        assertThat(JsonArray.parse("[1.10, 0.123456789012345678]").toJson()).isEqualTo("[1.10,0.123456789012345678]");
+        assertThat(JsonArray.parse("[1.5, 1e5, 2.5]").toJson()).isEqualTo("[1.5,1e5,2.5]");
+        assertThat(JsonArray.parse("[-0, 1]").toJson()).isEqualTo("[-0,1]");
+        assertThat(JsonArray.parse("[1, -0]").toJson()).isEqualTo("[1,-0]");
+    }
+
+    @Test
+    public void shouldKeepNumbersOfMixedKindsAsNodes() {
+        JsonArray mixed = JsonArray.parse("[1, 2.5, 12345678901234567890, \"x\", 3]");
+        assertThat(mixed.requiredNumber(0)).isEqualTo(1L);
+        assertThat(mixed.requiredNumber(1)).isEqualTo(2.5);
+        assertThat(mixed.requiredNumber(2)).isEqualTo(new BigDecimal("12345678901234567890"));
+        assertThat(mixed.requiredString(3)).isEqualTo("x");
+        assertThat(mixed.toJson()).isEqualTo("[1,2.5,12345678901234567890,\"x\",3]");
+        assertThatThrownBy(mixed::longArray).isInstanceOf(JsonConversionException.class);
+    }
+
+    @Test
+    public void shouldConvertPrimitiveArraysWhenOtherValuesAreAdded() {
+        JsonArray numbers = JsonArray.ofLongs(new long[] { 0, 1, 2, 3, 4 }, 1, 4);
+        assertThat(numbers.add(4).longArray()).containsExactly(1L, 2L, 3L, 4L);
+        numbers.set(0, "one");
+        numbers.remove(1);
+        assertThat(numbers.toJson()).isEqualTo("[\"one\",3,4]");
+        numbers.remove(0);
+        assertThat(numbers.doubleArray()).containsExactly(3.0, 4.0);
+    }
+
+    @Test
+    public void shouldRejectChangesToFrozenArrays() {
+        JsonArray numbers = JsonArray.parse("[1, 2, 3]").freeze();
+        JsonArray objects = new JsonArray().add(new JsonObject().put("a", 1)).freeze();
+        assertThat(numbers).isEqualTo(JsonArray.ofLongs(1, 2, 3).freeze());
+        assertThat(numbers).isNotEqualTo(JsonArray.ofLongs(1, 2, 4).freeze());
+        assertThatThrownBy(() -> numbers.set(0, 5)).isInstanceOf(UnsupportedOperationException.class);
+        assertThatThrownBy(numbers::clear).isInstanceOf(UnsupportedOperationException.class);
+        assertThatThrownBy(() -> objects.requiredObject(0).put("b", 2)).isInstanceOf(UnsupportedOperationException.class);
+        assertThatThrownBy(() -> objects.iterator().remove()).isInstanceOf(UnsupportedOperationException.class);
+        assertThat(objects.deepClone().add("x").size()).isEqualTo(2);
+    }
+
+    @Test
+    public void shouldCreateNewVersionsOfArrays() {
+        JsonArray small = new JsonArray().add("a").add("b");
+        assertThat(small.with(1, "c").withAdded("d").strings()).containsExactly("a", "c", "d");
+        assertThat(small.strings()).containsExactly("a", "b");
+        assertThatThrownBy(() -> small.add("c")).isInstanceOf(UnsupportedOperationException.class);
+
+        JsonArray large = new JsonArray();
+        for (int i = 0; i < 5000; i++) {
+            large.add("value" + i);
+        }
+        JsonArray version = large;
+        for (int i = 0; i < 2000; i++) {
+            version = version.withAdded(i);
+        }
+        version = version.with(0, "first").with(4999, "last").with(6999, "end");
+        assertThat(version.size()).isEqualTo(7000);
+        assertThat(version.requiredString(0)).isEqualTo("first");
+        assertThat(version.requiredString(1)).isEqualTo("value1");
+        assertThat(version.requiredString(4999)).isEqualTo("last");
+        assertThat(version.requiredLong(5000)).isEqualTo(0L);
+        assertThat(version.requiredString(6999)).isEqualTo("end");
+        assertThat(large.size()).isEqualTo(5000);
+        assertThat(large.requiredString(0)).isEqualTo("value0");
+
+        JsonArray expected = large.deepClone();
+        for (int i = 0; i < 2000; i++) {
+            expected.add(i);
+        }
+        expected.set(0, "first");
+        expected.set(4999, "last");
+        expected.set(6999, "end");
+        assertThat(version).isEqualTo(expected);
+        assertThat(version.hashCode()).isEqualTo(expected.hashCode());
+        assertThat(version.toJson()).isEqualTo(expected.toJson());
+        assertThat(version.nodeStream().count()).isEqualTo(7000L);
+        assertThat(version.deepClone().add("more").size()).isEqualTo(7001);
+    }
 
     @Test
     public void shouldParseBase64EncodedJsonArray() {
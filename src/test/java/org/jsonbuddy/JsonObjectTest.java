@@ -1,11 +1,20 @@
 package org.jsonbuddy;
 
+import org.jsonbuddy.parse.JsonParser;
 import org.junit.Test;
 
 import java.math.BigDecimal;
 import java.time.Instant;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Base64;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
@@ -241,4 +250,174 @@ public class JsonObjectTest {
                 .isEqualTo(source);
     }
 
+
+    @Test
+    public void shouldKeepInsertionOrderAcrossSizes() {
+        JsonObject object = new JsonObject();
+        Map<String, JsonNode> expected = new LinkedHashMap<>();
+        for (int i = 0; i < 40; i++) {
+            object.put("key" + (i * 7 % 40), i);
+            expected.put("key" + (i * 7 % 40), JsonFactory.jsonNode(i));
+            assertThat(object.size()).isEqualTo(expected.size());
+            assertThat(new ArrayList<>(object.keys())).isEqualTo(new ArrayList<>(expected.keySet()));
+        }
+        object.put("key0", "replaced");
+        expected.put("key0", new JsonString("replaced"));
+        for (int i = 0; i < 40; i += 3) {
+            assertThat(object.remove("key" + i)).isEqualTo(Optional.of(expected.remove("key" + i)));
+        }
+        assertThat(object.remove("key0")).isEmpty();
+        assertThat(new ArrayList<>(object.keys())).isEqualTo(new ArrayList<>(expected.keySet()));
+        for (String key : expected.keySet()) {
+            assertThat(object.value(key)).isEqualTo(Optional.of(expected.get(key)));
+        }
+        assertThat(object.hashCode()).isEqualTo(Objects.hash(expected));
+        assertThat(JsonObject.parse(object.toJson())).isEqualTo(object);
+        assertThat(object.deepClone().toJson()).isEqualTo(object.toJson());
+    }
+
+    @Test
+    public void shouldChangeObjectThroughKeys() {
+        JsonObject object = new JsonObject().put("a", 1).put("b", 2).put("c", 3);
+        Iterator<String> keys = object.keys().iterator();
+        keys.next();
+        keys.remove();
+        assertThat(object.keys().remove("c")).isTrue();
+        assertThat(object).isEqualTo(new JsonObject().put("b", 2));
+        assertThat(object.keys()).containsExactly("b");
+
+        Iterator<String> iterator = object.keys().iterator();
+        object.put("d", 4);
+        assertThatThrownBy(iterator::next).isInstanceOf(ConcurrentModificationException.class);
+    }
+
+    @Test
+    public void shouldCompareObjectsIndependentOfOrder() {
+        JsonObject small = new JsonObject().put("a", 1).put("b", 2);
+        assertThat(small).isEqualTo(new JsonObject().put("b", 2).put("a", 1));
+        assertThat(small.hashCode()).isEqualTo(new JsonObject().put("b", 2).put("a", 1).hashCode());
+        JsonObject large = new JsonObject();
+        JsonObject reversed = new JsonObject();
+        for (int i = 0; i < 20; i++) {
+            large.put("k" + i, i);
+            reversed.put("k" + (19 - i), 19 - i);
+        }
+        assertThat(large).isEqualTo(reversed);
+        assertThat(large.hashCode()).isEqualTo(reversed.hashCode());
+        assertThat(large).isNotEqualTo(reversed.deepClone().put("k3", 4));
+    }
+
+    @Test
+    public void shouldRejectChangesToFrozenObjects() {
+        JsonObject o = JsonObject.parse("{\"name\": \"a\", \"tags\": [\"x\"], \"child\": {\"id\": 1}}");
+        int hashCode = o.hashCode();
+        assertThat(o.freeze()).isSameAs(o);
+        assertThat(o.isFrozen()).isTrue();
+        assertThat(o.requiredObject("child").isFrozen()).isTrue();
+        assertThat(o.hashCode()).isEqualTo(hashCode);
+        assertThat(o).isEqualTo(JsonObject.parse(o.toJson()));
+
+        assertThatThrownBy(() -> o.put("name", "b")).isInstanceOf(UnsupportedOperationException.class);
+        assertThatThrownBy(() -> o.remove("name")).isInstanceOf(UnsupportedOperationException.class);
+        assertThatThrownBy(() -> o.keys().clear()).isInstanceOf(UnsupportedOperationException.class);
+        assertThatThrownBy(() -> o.requiredObject("child").put("id", 2)).isInstanceOf(UnsupportedOperationException.class);
+        assertThatThrownBy(() -> o.requiredArray("tags").add("y")).isInstanceOf(UnsupportedOperationException.class);
+        assertThat(o.toJson()).isEqualTo("{\"name\":\"a\",\"tags\":[\"x\"],\"child\":{\"id\":1}}");
+
+        JsonObject copy = o.deepClone();
+        assertThat(copy.isFrozen()).isFalse();
+        copy.requiredArray("tags").add("y");
+        assertThat(copy.requiredArray("tags").strings()).containsExactly("x", "y");
+    }
+
+    @Test
+    public void shouldCreateNewVersionsOfObjects() {
+        JsonObject small = new JsonObject().put("a", 1).put("b", 2);
+        JsonObject changed = small.with("a", 10).with("c", new JsonObject().put("d", 4));
+        assertThat(small.isFrozen()).isTrue();
+        assertThat(small.toJson()).isEqualTo("{\"a\":1,\"b\":2}");
+        assertThat(changed.toJson()).isEqualTo("{\"a\":10,\"b\":2,\"c\":{\"d\":4}}");
+        assertThat(changed.requiredObject("c").isFrozen()).isTrue();
+        assertThat(changed.without("b").without("missing").keys()).containsExactly("a", "c");
+
+        JsonObject large = new JsonObject();
+        for (int i = 0; i < 1000; i++) {
+            large.put("key" + i, i);
+        }
+        JsonObject version = large.with("key500", "changed").with("Aa", 1).with("BB", 2).without("key0");
+        assertThat(large.requiredLong("key500")).isEqualTo(500L);
+        assertThat(large.containsKey("Aa")).isFalse();
+        assertThat(version.requiredString("key500")).isEqualTo("changed");
+        assertThat(version.requiredLong("Aa")).isEqualTo(1L);
+        assertThat(version.requiredLong("BB")).isEqualTo(2L);
+        assertThat(version.containsKey("key0")).isFalse();
+        assertThat(version.size()).isEqualTo(1001);
+        assertThat(version.keys().iterator().next()).isEqualTo("key1");
+        assertThatThrownBy(() -> version.put("key1", 0)).isInstanceOf(UnsupportedOperationException.class);
+
+        JsonObject expected = large.deepClone();
+        expected.remove("key0");
+        expected.put("key500", "changed").put("Aa", 1).put("BB", 2);
+        assertThat(version).isEqualTo(expected);
+        assertThat(expected).isEqualTo(version);
+        assertThat(version.hashCode()).isEqualTo(expected.hashCode());
+        assertThat(version.toJson()).isEqualTo(expected.toJson());
+        assertThat(version.deepClone().put("Aa", 3).requiredLong("Aa")).isEqualTo(3L);
+
+        JsonObject removed = version;
+        for (int i = 1; i < 1000; i++) {
+            removed = removed.without("key" + i);
+        }
+        assertThat(removed.toJson()).isEqualTo("{\"Aa\":1,\"BB\":2}");
+        assertThat(removed.without("Aa").without("BB")).isEqualTo(new JsonObject());
+    }
+
+    @Test
+    public void shouldShareShapesOfObjectsWithSameKeys() {
+        ObjectShape shape = ObjectShape.EMPTY.with("id").with("name");
+        assertThat(ObjectShape.EMPTY.with("id").with("name")).isSameAs(shape);
+        assertThat(ObjectShape.EMPTY.with("id").with(new String("name"))).isSameAs(shape);
+        assertThat(ObjectShape.EMPTY.with("name").with("id")).isNotSameAs(shape);
+        assertThat(ObjectShape.EMPTY.with("id").with("name").with("age").without(2)).isSameAs(shape);
+        assertThat(shape.positionOf("name")).isEqualTo(1);
+        assertThat(shape.positionOf("age")).isEqualTo(-1);
+
+        JsonArray records = JsonArray.parse("[{\"id\":1,\"name\":\"a\"},{\"id\":2,\"name\":\"b\"}]");
+        JsonObject second = records.requiredObject(1);
+        second.put("extra", true);
+        second.remove("id");
+        assertThat(second).isEqualTo(new JsonObject().put("name", "b").put("extra", true));
+        assertThat(records.requiredObject(0).keys()).containsExactly("id", "name");
+    }
+
+    @Test
+    public void shouldKeepSharingShapesAfterManyDifferentLayouts() {
+        List<JsonNode> documents = new ArrayList<>();
+        for (int i = 0; i < 10000; i++) {
+            documents.add(JsonParser.parse("{\"id" + i + "\": " + i + "}"));
+            documents.add(JsonParser.parse("{\"data\": true, \"id" + i + "\": " + i + "}"));
+        }
+        ObjectShape record = ObjectShape.EMPTY.with("name").with("age");
+        assertThat(ObjectShape.EMPTY.with("name").with("age")).isSameAs(record);
+        ObjectShape nested = ObjectShape.EMPTY.with("data").with("name");
+        assertThat(ObjectShape.EMPTY.with("data").with("name")).isSameAs(nested);
+        assertThat(documents).hasSize(20000);
+    }
+
+    @Test
+    public void shouldCopyPrivateShapesOfLargeObjects() {
+        JsonObject large = new JsonObject();
+        for (int i = 0; i < 100; i++) {
+            large.put("field" + i, i);
+        }
+        JsonObject clone = large.deepClone();
+        clone.remove("field5");
+        clone.put("added", true);
+        assertThat(large.size()).isEqualTo(100);
+        assertThat(large.containsKey("field5")).isTrue();
+        assertThat(large.containsKey("added")).isFalse();
+        assertThat(clone.size()).isEqualTo(100);
+        assertThat(clone.requiredLong("field99")).isEqualTo(99L);
+        assertThat(new ArrayList<>(clone.keys()).get(5)).isEqualTo("field6");
+    }
 }
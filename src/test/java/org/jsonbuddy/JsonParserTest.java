@@ -4,17 +4,29 @@ package org.jsonbuddy;
 import org.assertj.core.data.Offset;
 import org.jsonbuddy.parse.JsonParseException;
 import org.jsonbuddy.parse.JsonParser;
+import org.jsonbuddy.parse.JsonPathFilter;
+import org.jsonbuddy.parse.JsonPushParser;
+import org.jsonbuddy.parse.JsonTape;
 import org.junit.Test;
 
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.StringReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.LocalDateTime;
 import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Base64;
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.Random;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
@@ -272,6 +284,431 @@ public class JsonParserTest {
         assertThat(parsed.requiredDouble("numval")).isCloseTo(0d, Offset.offset(0.00001d));
     }
 
+    @Test
+    public void shouldHandleValuesCrossingReadBuffer() throws IOException {
+        StringBuilder longText = new StringBuilder();
+        for (int i = 0; i < 20000; i++) {
+            longText.append((char)('a' + i % 26));
+        }
+        JsonArray expected = new JsonArray();
+        for (int i = 0; i < 2000; i++) {
+            expected.add(new JsonObject().put("text", "line \"" + i + "\"\n").put("number", i).put("pi", 3.14));
+        }
+        expected.add(longText.toString());
+
+        JsonNode parsed = JsonParser.parseNode(new StringReader(expected.toJson()));
+
+        assertThat(parsed).isEqualTo(expected);
+    }
+
+    @Test
+    public void shouldFailOnUnterminatedArrayWithTrailingWhitespace() {
+        validateException("[1, ", "Expected , or ] in array");
+        validateException("[ ", "Expected , or ] in array");
+    }
+
+    @Test
+    public void shouldParseUtf8Bytes() throws IOException {
+        String json = fixQuotes("{'name':'Bl\u00e5b\u00e6r \ud83d\ude00','escaped':'\\u00e5','list':[1,2.5,true,null]}");
+        JsonObject expected = JsonObject.parse(json);
+        byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+
+        assertThat(JsonParser.parse(bytes)).isEqualTo(expected);
+        assertThat(JsonParser.parse(new ByteArrayInputStream(bytes))).isEqualTo(expected);
+        assertThat(JsonObject.read(new ByteArrayInputStream(bytes)).requiredString("name"))
+                .isEqualTo("Bl\u00e5b\u00e6r \ud83d\ude00");
+    }
+
+    @Test
+    public void shouldNotReferToParsedBytesFromLongStrings() {
+        String longString = String.join("", Collections.nCopies(80, "x"));
+        byte[] bytes = ("[\"" + longString + "\"]").getBytes(StandardCharsets.UTF_8);
+        JsonArray array = (JsonArray) JsonParser.parse(bytes);
+        Arrays.fill(bytes, (byte) 'y');
+        assertThat(array.requiredString(0)).isEqualTo(longString);
+        assertThat(array.toJson()).isEqualTo("[\"" + longString + "\"]");
+    }
+
+    @Test
+    public void shouldParseByteRange() {
+        byte[] bytes = "xx[1,\"two\"]yy".getBytes(StandardCharsets.UTF_8);
+        assertThat(JsonParser.parse(bytes, 2, bytes.length - 4))
+                .isEqualTo(new JsonArray().add(1).add("two"));
+    }
+
+    @Test
+    public void shouldParseFile() throws IOException {
+        JsonArray expected = new JsonArray();
+        for (int i = 0; i < 1000; i++) {
+            expected.add(new JsonObject().put("id", i).put("name", "Bl\u00e5b\u00e6r " + i));
+        }
+        Path file = Files.createTempFile("jsonbuddy", ".json");
+        try {
+            Files.write(file, expected.toJson().getBytes(StandardCharsets.UTF_8));
+            assertThat(JsonParser.parse(file)).isEqualTo(expected);
+            assertThat(JsonArray.read(file)).isEqualTo(expected);
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void shouldParseNewlineDelimitedJson() {
+        String input = fixQuotes("{'id':1,'text':'a\\nb'}\r\n\n  \r\n[1,2] \n'text'\n42\r\n{'id':2}");
+        byte[] bytes = input.getBytes(StandardCharsets.UTF_8);
+
+        assertThat(JsonParser.lines(new ByteArrayInputStream(bytes)).collect(Collectors.toList()))
+                .containsExactly(
+                        new JsonObject().put("id", 1).put("text", "a\nb"),
+                        new JsonArray().add(1).add(2),
+                        new JsonString("text"),
+                        new JsonNumber(42L),
+                        new JsonObject().put("id", 2));
+        assertThat(JsonParser.lines(new StringReader(input)).count()).isEqualTo(5);
+        assertThat(JsonParser.lines(new StringReader("\n\n")).count()).isEqualTo(0);
+    }
+
+    @Test
+    public void shouldReadJsonObjectLinesLazily() {
+        String input = "{\"id\":1}\n{\"id\":2}\n{\"id\":\n";
+        List<Long> ids = JsonObject.readLines(new ByteArrayInputStream(input.getBytes(StandardCharsets.UTF_8)))
+                .limit(2)
+                .map(o -> o.requiredLong("id"))
+                .collect(Collectors.toList());
+        assertThat(ids).containsExactly(1L, 2L);
+    }
+
+    @Test
+    public void shouldRequireLineBreakBetweenRecords() {
+        assertThatThrownBy(() -> JsonParser.lines(new StringReader("{} {}")).count())
+                .isInstanceOf(JsonParseException.class)
+                .hasMessage("Expected line break after value, was '{'");
+        assertThatThrownBy(() -> JsonObject.readLines(new ByteArrayInputStream("[]".getBytes())).count())
+                .isInstanceOf(JsonParseException.class);
+    }
+
+    @Test
+    public void shouldReadConcatenatedValues() {
+        String input = "{\"id\":1}{\"id\":2} [3]\n\t\"four\"\"five\"6 true null{}";
+        List<JsonNode> expected = List.of(new JsonObject().put("id", 1), new JsonObject().put("id", 2),
+                new JsonArray().add(3), new JsonString("four"), new JsonString("five"), new JsonNumber(6L),
+                JsonBoolean.TRUE, JsonNull.NULL, new JsonObject());
+        assertThat(JsonParser.values(new StringReader(input)).collect(Collectors.toList()))
+                .isEqualTo(expected);
+        assertThat(JsonParser.values(new ByteArrayInputStream(input.getBytes(StandardCharsets.UTF_8))).collect(Collectors.toList()))
+                .isEqualTo(expected);
+        assertThat(JsonParser.values(new StringReader(" \n ")).count()).isEqualTo(0);
+
+        List<JsonNode> firstValues = JsonParser.values(new StringReader("[1][2][3, "))
+                .limit(2)
+                .collect(Collectors.toList());
+        assertThat(firstValues).containsExactly(new JsonArray().add(1), new JsonArray().add(2));
+        assertThatThrownBy(() -> JsonParser.values(new StringReader("[1][2][3, ")).count())
+                .isInstanceOf(JsonParseException.class)
+                .hasMessage("Expected , or ] in array");
+    }
+
+    @Test
+    public void shouldParseNewlineDelimitedFileInParallel() throws IOException {
+        StringBuilder input = new StringBuilder();
+        for (int i = 0; i < 20000; i++) {
+            input.append(new JsonObject().put("id", i).put("name", "Bl\u00e5b\u00e6r " + i).toJson())
+                    .append(i % 3 == 0 ? "\r\n" : "\n");
+        }
+        Path file = Files.createTempFile("jsonbuddy", ".ndjson");
+        try {
+            Files.write(file, input.toString().getBytes(StandardCharsets.UTF_8));
+            List<Long> ids;
+            try (Stream<JsonObject> lines = JsonObject.readLines(file)) {
+                ids = lines.parallel().map(o -> o.requiredLong("id")).collect(Collectors.toList());
+            }
+            assertThat(ids).hasSize(20000);
+            for (int i = 0; i < ids.size(); i++) {
+                assertThat(ids.get(i)).isEqualTo((long) i);
+            }
+            try (Stream<JsonNode> lines = JsonParser.lines(file)) {
+                assertThat(lines.count()).isEqualTo(20000);
+            }
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void shouldParseLargeArrayInParallel() throws IOException {
+        JsonArray expected = new JsonArray();
+        for (int i = 0; i < 50000; i++) {
+            expected.add(new JsonObject().put("id", i).put("text", "[\"{" + i + "}\"]").put("list", new JsonArray().add(i).add(true)));
+            expected.add(i);
+        }
+        Path file = Files.createTempFile("jsonbuddy", ".json");
+        try {
+            Files.write(file, expected.toJson().getBytes(StandardCharsets.UTF_8));
+            assertThat(JsonParser.parseArrayInParallel(file)).isEqualTo(expected);
+
+            Files.write(file, " [ ] ".getBytes(StandardCharsets.UTF_8));
+            assertThat(JsonParser.parseArrayInParallel(file)).isEqualTo(new JsonArray());
+
+            Files.write(file, "{\"a\":1}".getBytes(StandardCharsets.UTF_8));
+            assertThatThrownBy(() -> JsonParser.parseArrayInParallel(file))
+                    .isInstanceOf(JsonParseException.class)
+                    .hasMessage("Expected JSON array got '{'");
+
+            Files.write(file, "[1, {\"a\" 2}]".getBytes(StandardCharsets.UTF_8));
+            assertThatThrownBy(() -> JsonParser.parseArrayInParallel(file))
+                    .isInstanceOf(JsonParseException.class)
+                    .hasMessage("Expected value for objectkey a");
+
+            Files.write(file, "[1, 2".getBytes(StandardCharsets.UTF_8));
+            assertThatThrownBy(() -> JsonParser.parseArrayInParallel(file))
+                    .isInstanceOf(JsonParseException.class)
+                    .hasMessage("Expected , or ] in array");
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void shouldFindQuotesAndEscapesAtAnyPosition() {
+        JsonArray expected = new JsonArray();
+        for (int length = 0; length < 40; length++) {
+            for (String special : new String[] { "\"", "\\", "\u00e5", "\ud83d\ude00", "\n" }) {
+                StringBuilder text = new StringBuilder();
+                for (int i = 0; i < length; i++) {
+                    text.append((char) ('a' + i % 26));
+                }
+                expected.add(text.toString() + special + text);
+            }
+        }
+        byte[] bytes = expected.toJson().getBytes(StandardCharsets.UTF_8);
+
+        assertThat(JsonParser.parse(bytes)).isEqualTo(expected);
+        assertThat(JsonTape.parse(bytes).root().toJsonNode()).isEqualTo(expected);
+        List<JsonNode> pushed = new ArrayList<>();
+        JsonPushParser.arrayElements(pushed::add).feed(bytes, 0, bytes.length);
+        assertThat(JsonArray.fromNodeList(pushed)).isEqualTo(expected);
+    }
+
+    @Test
+    public void shouldReadStringsWithAndWithoutEscapesAcrossBuffers() throws IOException {
+        JsonArray expected = new JsonArray();
+        for (int i = 0; i < 3000; i++) {
+            expected.add(i % 7 == 0 ? "Bl\u00e5b\u00e6r \"" + i + "\"" : "Bl\u00e5b\u00e6r " + i);
+        }
+        String json = expected.toJson();
+
+        assertThat(JsonParser.parse(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)))).isEqualTo(expected);
+        assertThat(JsonParser.parseNode(new StringReader(json))).isEqualTo(expected);
+        assertThat(JsonParser.parse("{\"\":\"\",\"key\":\"\\r\"}")).isEqualTo(new JsonObject().put("", "").put("key", ""));
+    }
+
+    @Test
+    public void shouldParseNumbersExactly() {
+        String[] doubles = { "0.1", "-0.0", "3.141592653589793", "1e22", "1e23", "2.2250738585072014E-308",
+                "4.9e-324", "1.7976931348623157e308", "0.30000000000000004", "123456789012.5e-3", "9007199254740993.0" };
+        for (String text : doubles) {
+            assertThat(JsonParser.parse(text)).isEqualTo(new JsonNumber(Double.parseDouble(text)));
+        }
+        Random random = new Random(42);
+        for (int i = 0; i < 10000; i++) {
+            double value = i % 2 == 0 ? random.nextDouble() * Math.pow(10, random.nextInt(40) - 20) : Double.longBitsToDouble(random.nextLong());
+            if (!Double.isNaN(value) && !Double.isInfinite(value)) {
+                assertThat(JsonParser.parse("[" + value + "]")).isEqualTo(new JsonArray().add(value));
+            }
+        }
+
+        assertThat(JsonParser.parse("9223372036854775807")).isEqualTo(new JsonNumber(Long.MAX_VALUE));
+        assertThat(JsonParser.parse("-9223372036854775808")).isEqualTo(new JsonNumber(Long.MIN_VALUE));
+        assertThat(JsonParser.parse("9223372036854775808")).isEqualTo(new JsonNumber(new BigDecimal("9223372036854775808")));
+        assertThat(JsonParser.parse("-000000000000000000000042")).isEqualTo(new JsonNumber(-42L));
+        assertThat(JsonParser.parse("3.14159265358979323846264")).isEqualTo(new JsonNumber(new BigDecimal("3.14159265358979323846264")));
+        assertThat(((JsonNumber) JsonParser.parse("3.141592653589793238")).javaObjectValue()).isInstanceOf(Double.class);
+        assertThat(JsonParser.parse("3.141592653589793238")).isEqualTo(new JsonNumber(3.141592653589793238));
+    }
+
+    @Test
+    public void shouldRejectMalformedNumbers() {
+        validateException("[1-2]", "Illegal value '1-2'");
+        validateException("[-]", "Illegal value '-'");
+        validateException("[1e]", "Illegal value '1e'");
+        validateException("[1.5.2]", "Illegal value '1.5.2'");
+    }
+
+    @Test
+    public void shouldWriteParsedNumbersVerbatim() {
+        String json = "{\"price\":1.10,\"big\":1e3,\"precise\":0.1000000000000000055511151231257827,\"id\":-0}";
+        JsonObject parsed = JsonObject.parse(json);
+
+        assertThat(parsed.toJson()).isEqualTo(json);
+        assertThat(parsed.requiredDouble("price")).isEqualTo(1.1);
+        assertThat(parsed.requiredLong("big")).isEqualTo(1000L);
+        assertThat(parsed.value("price").get()).isEqualTo(new JsonNumber(1.1));
+        assertThat(parsed.value("id").get()).isEqualTo(new JsonNumber(0L));
+        assertThat(parsed.value("id").get().hashCode()).isEqualTo(new JsonNumber(0L).hashCode());
+        assertThat(parsed.value("big").get().stringValue()).isEqualTo("1000.0");
+    }
+
+    @Test
+    public void shouldWriteLongStringsFromParsedBytes() {
+        StringBuilder blob = new StringBuilder();
+        for (int i = 0; i < 200; i++) {
+            blob.append((char) ('A' + i % 26)).append(i % 10 == 0 ? "\u00e5" : "");
+        }
+        String escaped = blob + "\"\n\\\u263a";
+        JsonObject original = new JsonObject().put("blob", blob.toString()).put("escaped", escaped).put("short", "x");
+        byte[] bytes = original.toJson().getBytes(StandardCharsets.UTF_8);
+
+        JsonObject parsed = (JsonObject) JsonParser.parse(bytes);
+        parsed.put("short", "y");
+        assertThat(parsed.toJson()).isEqualTo(original.put("short", "y").toJson());
+        assertThat(parsed.requiredString("blob")).isEqualTo(blob.toString());
+        assertThat(parsed.requiredString("escaped")).isEqualTo(escaped);
+        assertThat(parsed.value("escaped").get()).isEqualTo(new JsonString(escaped));
+        assertThat(parsed.value("escaped").get().hashCode()).isEqualTo(new JsonString(escaped).hashCode());
+        assertThat(parsed.toJson()).isEqualTo(original.toJson());
+    }
+
+    @Test
+    public void shouldOnlyBuildSelectedPaths() throws IOException {
+        String json = fixQuotes("{'user':{'id':42,'name':'Darth \\u0056ader','tags':['a','b']},'skip':[1.5e3,{'x':null},'\\\\\\'']," +
+                "'items':[{'price':10,'sku':'a'},{'sku':'b'},{'price':12.5,'sku':'c'}],'count':3}");
+        JsonPathFilter filter = JsonPathFilter.of("/user/id", "items.*.price", "/missing/field");
+        JsonObject expected = new JsonObject()
+                .put("user", new JsonObject().put("id", 42))
+                .put("items", new JsonArray().add(new JsonObject().put("price", 10)).add(new JsonObject()).add(new JsonObject().put("price", 12.5)));
+
+        assertThat(JsonParser.parse(json, filter)).isEqualTo(expected);
+        assertThat(JsonParser.parse(json.getBytes(StandardCharsets.UTF_8), filter)).isEqualTo(expected);
+        assertThat(JsonParser.parse(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)), filter)).isEqualTo(expected);
+        assertThat(JsonParser.parse(json, JsonPathFilter.of("/items/1", "user", "count")))
+                .isEqualTo(new JsonObject()
+                        .put("user", JsonParser.parseToObject(json).requiredObject("user"))
+                        .put("items", new JsonArray().add(new JsonObject().put("sku", "b")))
+                        .put("count", 3));
+        assertThat(JsonParser.parse(json, JsonPathFilter.of(""))).isEqualTo(JsonParser.parse(json));
+        assertThat(JsonParser.parse("{\"a/b\":{\"~\":1},\"a\":2}", JsonPathFilter.of("/a~1b/~0")))
+                .isEqualTo(new JsonObject().put("a/b", new JsonObject().put("~", 1)));
+    }
+
+    @Test
+    public void shouldReportErrorsInSkippedValues() {
+        JsonPathFilter filter = JsonPathFilter.of("/id");
+        assertThatThrownBy(() -> JsonParser.parse("{\"skip\": [1, 2g], \"id\": 1}", filter))
+                .isInstanceOf(JsonParseException.class)
+                .hasMessage("Illegal value '2g'");
+        assertThatThrownBy(() -> JsonParser.parse("{\"skip\": \"abc", filter))
+                .isInstanceOf(JsonParseException.class)
+                .hasMessage("JsonString not closed. Expected \"");
+        assertThatThrownBy(() -> JsonParser.parse("{\"skip\": [1 2]}".getBytes(StandardCharsets.UTF_8), filter))
+                .isInstanceOf(JsonParseException.class)
+                .hasMessage("Expected , or ] in array");
+    }
+
+    @Test
+    public void shouldValidateWellFormedJson() throws IOException {
+        String json = fixQuotes("{'a': [1, -0.5, 2e10, 3E-2, true, false, null, {}, []], 'b\\u00e6\\n': '\u263a \\/ \\r',\r\n\t'c': {'d': ''}}");
+        JsonParser.validate(json.getBytes(StandardCharsets.UTF_8));
+        JsonParser.validate(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)));
+        JsonParser.validate(new StringReader(json));
+        JsonParser.validate(" \"text\" ".getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void shouldReportOffsetOfValidationErrors() {
+        assertValidationError("[1, 2,]", "Unexpected character ']' at offset 6");
+        assertValidationError("{\"a\": 1,}", "Expected object key at offset 8");
+        assertValidationError("{\"a\" 1}", "Expected : after object key at offset 5");
+        assertValidationError("[1 2]", "Expected , or ] in array at offset 3");
+        assertValidationError("{\"a\": 1", "JsonObject not closed. Expected } at offset 7");
+        assertValidationError("[01]", "Illegal number at offset 1");
+        assertValidationError("[-]", "Illegal number at offset 1");
+        assertValidationError("[1.]", "Illegal number at offset 1");
+        assertValidationError("[tru]", "Unexpected value, expected true at offset 1");
+        assertValidationError("[\"a\\x\"]", "Illegal escape sequence \\x at offset 4");
+        assertValidationError("[\"a\\u12g4\"]", "Illegal unicode sequence 12g4 at offset 4");
+        assertValidationError("[\"a\tb\"]", "Unescaped control character in string at offset 3");
+        assertValidationError("[\"abc", "JsonString not closed. Expected \" at offset 5");
+        assertValidationError("{} {}", "Unexpected content after value '{' at offset 3");
+        assertValidationError("  ", "Expected a value at offset 2");
+        assertValidationError("[\u00a0]", "Unexpected character '\u00a0' at offset 1");
+
+        byte[] malformed = { '[', '"', 'a', (byte) 0xC3, '"', ']' };
+        assertThatThrownBy(() -> JsonParser.validate(malformed))
+                .isInstanceOf(JsonParseException.class)
+                .hasMessage("Malformed UTF-8 at offset 3");
+        try {
+            JsonParser.validate("{\"a\": [true, fals]}".getBytes(StandardCharsets.UTF_8));
+            throw new AssertionError("Expected JsonParseException");
+        } catch (JsonParseException e) {
+            assertThat(e.getOffset()).isEqualTo(13L);
+        }
+    }
+
+    private static void assertValidationError(String json, String message) {
+        assertThatThrownBy(() -> JsonParser.validate(json.getBytes(StandardCharsets.UTF_8)))
+                .isInstanceOf(JsonParseException.class)
+                .hasMessage(message);
+        assertThatThrownBy(() -> JsonParser.validate(new StringReader(json)))
+                .isInstanceOf(JsonParseException.class)
+                .hasMessage(message);
+    }
+
+    @Test
+    public void shouldReuseParserForManyDocuments() throws IOException {
+        JsonParser parser = new JsonParser();
+        String json = fixQuotes("{'name':'Darth \\u0056ader','kids':['Luke','Leia'],'age':45}");
+        StringBuilder longString = new StringBuilder();
+        for (int i = 0; i < 100_000; i++) {
+            longString.append(i % 10 == 0 ? "\\n" : "x");
+        }
+
+        assertThat(parser.read(json)).isEqualTo(JsonParser.parse(json));
+        assertThatThrownBy(() -> parser.read("{\"a\": [1, 2"))
+                .isInstanceOf(JsonParseException.class);
+        assertThat(parser.read(new StringReader("[1, 2]"))).isEqualTo(new JsonArray().add(1).add(2));
+        assertThat(parser.read(json.getBytes(StandardCharsets.UTF_8))).isEqualTo(JsonParser.parse(json));
+        assertThat(parser.read(new ByteArrayInputStream("\"abc\"".getBytes(StandardCharsets.UTF_8))))
+                .isEqualTo(new JsonString("abc"));
+        assertThat(parser.read(new ByteArrayInputStream(("\"" + longString + "\"").getBytes(StandardCharsets.UTF_8))))
+                .isEqualTo(JsonParser.parse("\"" + longString + "\""));
+        assertThat(parser.read("  ")).isNull();
+        assertThat(parser.read(json, JsonPathFilter.of("/age"))).isEqualTo(new JsonObject().put("age", 45));
+        assertThatThrownBy(() -> parser.read("{\"kids\": [1 2]}".getBytes(StandardCharsets.UTF_8), JsonPathFilter.of("/age")))
+                .isInstanceOf(JsonParseException.class);
+        assertThat(parser.read(json.getBytes(StandardCharsets.UTF_8), JsonPathFilter.of("/kids/1")))
+                .isEqualTo(new JsonObject().put("kids", new JsonArray().add("Leia")));
+        assertThat(parser.read(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)), JsonPathFilter.of("/name")))
+                .isEqualTo(new JsonObject().put("name", "Darth Vader"));
+        assertThat(parser.read(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)))).isEqualTo(JsonParser.parse(json));
+    }
+
+    @Test
+    public void shouldParseConcurrentlyWithPooledParsers() throws InterruptedException {
+        List<Thread> threads = new ArrayList<>();
+        List<Throwable> errors = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            int threadNumber = t;
+            threads.add(new Thread(() -> {
+                try {
+                    for (int i = 0; i < 2000; i++) {
+                        JsonObject object = new JsonObject().put("thread", threadNumber).put("i", i).put("text", "value " + i);
+                        assertThat(JsonParser.parse(object.toJson())).isEqualTo(object);
+                        assertThat(JsonParser.parse(object.toJson().getBytes(StandardCharsets.UTF_8))).isEqualTo(object);
+                    }
+                } catch (Throwable e) {
+                    synchronized (errors) {
+                        errors.add(e);
+                    }
+                }
+            }));
+        }
+        threads.forEach(Thread::start);
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertThat(errors).isEmpty();
+    }
+
     private static String fixQuotes(String content) {
         return content.replace("'", "\"");
     }
@@ -0,0 +1,145 @@
+package org.jsonbuddy;
+
+import org.jsonbuddy.parse.JsonParseException;
+import org.jsonbuddy.parse.JsonPushParser;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class JsonPushParserTest {
+
+    private final List<JsonNode> values = new ArrayList<>();
+
+    @Test
+    public void shouldParseValuesSplitOverChunks() {
+        String json = fixQuotes("{'name':'Bl\u00e5b\u00e6r \\'quoted\\' {[',\n'list':[1,2,{'a':null}]} 42 'text' [true,false]\n-1.5");
+        for (int chunkSize = 1; chunkSize < 10; chunkSize++) {
+            values.clear();
+            JsonPushParser parser = new JsonPushParser(values::add);
+            feedInChunks(parser, json, chunkSize);
+            parser.endOfInput();
+
+            assertThat(values).containsExactly(
+                    new JsonObject().put("name", "Bl\u00e5b\u00e6r \"quoted\" {[").put("list", JsonArray.parse("[1,2,{\"a\":null}]")),
+                    new JsonNumber(42L),
+                    new JsonString("text"),
+                    new JsonArray().add(true).add(false),
+                    new JsonNumber(-1.5));
+        }
+    }
+
+    @Test
+    public void shouldEmitArrayElementsAsTheyComplete() {
+        JsonPushParser parser = JsonPushParser.arrayElements(values::add);
+        parser.feed(ByteBuffer.wrap(fixQuotes("[{'id':1},{'i").getBytes(StandardCharsets.UTF_8)));
+        assertThat(values).containsExactly(new JsonObject().put("id", 1));
+
+        parser.feed(ByteBuffer.wrap(fixQuotes("d':2}, 'three' ]").getBytes(StandardCharsets.UTF_8)));
+        parser.endOfInput();
+        assertThat(values).containsExactly(new JsonObject().put("id", 1), new JsonObject().put("id", 2), new JsonString("three"));
+    }
+
+    @Test
+    public void shouldReportIncompleteInput() {
+        JsonPushParser parser = new JsonPushParser(values::add);
+        parser.feed(ByteBuffer.wrap("{\"name\":\"Dar".getBytes(StandardCharsets.UTF_8)));
+        assertThat(values).isEmpty();
+        assertThatThrownBy(parser::endOfInput)
+                .isInstanceOf(JsonParseException.class)
+                .hasMessage("JsonString not closed. Expected \"");
+    }
+
+    @Test
+    public void shouldReportSyntaxErrors() {
+        JsonPushParser parser = JsonPushParser.arrayElements(values::add);
+        assertThatThrownBy(() -> parser.feed(ByteBuffer.wrap("[1 2]".getBytes(StandardCharsets.UTF_8))))
+                .hasMessage("Expected , or ] in array");
+    }
+
+    @Test
+    public void shouldOnlyEmitElementsOfTopLevelArray() {
+        JsonPushParser parser = JsonPushParser.arrayElements(values::add);
+        assertThatThrownBy(() -> parser.feed(ByteBuffer.wrap("{\"a\":1}".getBytes(StandardCharsets.UTF_8))))
+                .isInstanceOf(JsonParseException.class)
+                .hasMessage("Expected JSON array got '{'");
+        assertThat(values).isEmpty();
+    }
+
+    @Test
+    public void shouldRejectValuesAfterTopLevelArray() {
+        JsonPushParser parser = JsonPushParser.arrayElements(values::add);
+        assertThatThrownBy(() -> parser.feed(ByteBuffer.wrap("[1,2] 5".getBytes(StandardCharsets.UTF_8))))
+                .isInstanceOf(JsonParseException.class)
+                .hasMessage("Unexpected character '5' after array");
+        assertThat(values).containsExactly(new JsonNumber(1L), new JsonNumber(2L));
+    }
+
+    @Test
+    public void shouldReportUnclosedArrayAfterLastElement() {
+        JsonPushParser parser = JsonPushParser.arrayElements(values::add);
+        parser.feed(ByteBuffer.wrap("[1,2".getBytes(StandardCharsets.UTF_8)));
+        assertThatThrownBy(parser::endOfInput)
+                .isInstanceOf(JsonParseException.class)
+                .hasMessage("Expected , or ] in array");
+        assertThat(values).containsExactly(new JsonNumber(1L), new JsonNumber(2L));
+    }
+
+    @Test
+    public void shouldRejectLiteralsWithTrailingCharacters() {
+        assertThatThrownBy(() -> new JsonPushParser(values::add).feed(ByteBuffer.wrap("truex ".getBytes(StandardCharsets.UTF_8))))
+                .isInstanceOf(JsonParseException.class)
+                .hasMessage("Illegal value 'truex'");
+        assertThatThrownBy(() -> new JsonPushParser(values::add).feed(ByteBuffer.wrap("nullnull\n".getBytes(StandardCharsets.UTF_8))))
+                .isInstanceOf(JsonParseException.class)
+                .hasMessage("Illegal value 'nullnull'");
+        JsonPushParser parser = new JsonPushParser(values::add);
+        parser.feed(ByteBuffer.wrap("false".getBytes(StandardCharsets.UTF_8)));
+        parser.feed(ByteBuffer.wrap("x".getBytes(StandardCharsets.UTF_8)));
+        assertThatThrownBy(parser::endOfInput)
+                .isInstanceOf(JsonParseException.class)
+                .hasMessage("Illegal value 'falsex'");
+        assertThat(values).isEmpty();
+    }
+
+    @Test
+    public void shouldRejectLiteralsWithTrailingCharactersInArrays() {
+        JsonPushParser parser = JsonPushParser.arrayElements(values::add);
+        assertThatThrownBy(() -> parser.feed(ByteBuffer.wrap("[null, truex]".getBytes(StandardCharsets.UTF_8))))
+                .isInstanceOf(JsonParseException.class)
+                .hasMessage("Illegal value 'truex'");
+        assertThat(values).containsExactly(JsonNull.NULL);
+    }
+
+    @Test
+    public void shouldKeepLongStringsWhenBufferIsReused() {
+        JsonArray expected = new JsonArray();
+        for (int i = 0; i < 50; i++) {
+            StringBuilder text = new StringBuilder();
+            for (int j = 0; j < 100 + i; j++) {
+                text.append((char) ('a' + (i + j) % 26));
+            }
+            expected.add(text.toString());
+        }
+        JsonPushParser parser = JsonPushParser.arrayElements(values::add);
+        feedInChunks(parser, expected.toJson(), 7);
+        parser.endOfInput();
+        assertThat(JsonArray.fromNodeList(values)).isEqualTo(expected);
+    }
+
+    private static void feedInChunks(JsonPushParser parser, String json, int chunkSize) {
+        byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+        for (int i = 0; i < bytes.length; i += chunkSize) {
+            parser.feed(bytes, i, Math.min(chunkSize, bytes.length - i));
+        }
+    }
+
+    private static String fixQuotes(String content) {
+        return content.replace("'", "\"");
+    }
+}
@@ -0,0 +1,135 @@
+package org.jsonbuddy;
+
+import org.jsonbuddy.parse.JsonParseException;
+import org.jsonbuddy.parse.JsonParser;
+import org.jsonbuddy.parse.JsonReader;
+import org.jsonbuddy.parse.JsonToken;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class JsonReaderTest {
+
+    @Test
+    public void shouldReadTokens() throws IOException {
+        JsonReader reader = new JsonReader(new StringReader(fixQuotes("{'name':'Darth', 'age': 45, 'sith': true, 'master': null, 'kids': ['Luke']}")));
+        List<JsonToken> tokens = new ArrayList<>();
+        JsonToken token;
+        while ((token = reader.nextToken()) != JsonToken.END_DOCUMENT) {
+            tokens.add(token);
+        }
+        assertThat(tokens).containsExactly(
+                JsonToken.START_OBJECT,
+                JsonToken.NAME, JsonToken.STRING,
+                JsonToken.NAME, JsonToken.NUMBER,
+                JsonToken.NAME, JsonToken.BOOLEAN,
+                JsonToken.NAME, JsonToken.NULL,
+                JsonToken.NAME, JsonToken.START_ARRAY, JsonToken.STRING, JsonToken.END_ARRAY,
+                JsonToken.END_OBJECT);
+    }
+
+    @Test
+    public void shouldReadTypedValues() throws IOException {
+        JsonReader reader = new JsonReader(fixQuotes("{'name':'Darth','age':45,'height':2.03,'sith':true,'master':null}").getBytes(StandardCharsets.UTF_8));
+        assertThat(reader.nextToken()).isEqualTo(JsonToken.START_OBJECT);
+        assertThat(reader.nextName()).isEqualTo("name");
+        assertThat(reader.nextString()).isEqualTo("Darth");
+        assertThat(reader.nextName()).isEqualTo("age");
+        assertThat(reader.nextLong()).isEqualTo(45L);
+        assertThat(reader.nextName()).isEqualTo("height");
+        assertThat(reader.nextDouble()).isEqualTo(2.03);
+        assertThat(reader.nextName()).isEqualTo("sith");
+        assertThat(reader.nextBoolean()).isTrue();
+        assertThat(reader.nextName()).isEqualTo("master");
+        reader.nextNull();
+        assertThat(reader.hasNext()).isFalse();
+        assertThat(reader.nextToken()).isEqualTo(JsonToken.END_OBJECT);
+        assertThat(reader.nextToken()).isEqualTo(JsonToken.END_DOCUMENT);
+    }
+
+    @Test
+    public void shouldSkipValues() throws IOException {
+        JsonReader reader = new JsonReader(new StringReader(fixQuotes("{'skip':{'a':[1,{'b':2}]},'keep':'yes'}")));
+        reader.nextToken();
+        reader.skipValue();
+        assertThat(reader.nextName()).isEqualTo("keep");
+        assertThat(reader.nextString()).isEqualTo("yes");
+    }
+
+    @Test
+    public void shouldCountElementsBySkipping() throws IOException {
+        String json = fixQuotes("[{'text':'a \\'quoted\\' \\u00e6 string','n':[1.5e-3,-2]}, 'x', true, null, [], {}]");
+        JsonReader[] readers = { new JsonReader(json.getBytes(StandardCharsets.UTF_8)), new JsonReader(new StringReader(json)) };
+        for (JsonReader reader : readers) {
+            reader.nextToken();
+            int count = 0;
+            while (reader.hasNext()) {
+                reader.skipValue();
+                count++;
+            }
+            assertThat(count).isEqualTo(6);
+            assertThat(reader.nextToken()).isEqualTo(JsonToken.END_ARRAY);
+        }
+    }
+
+    @Test
+    public void shouldReadArrayElementsOneByOne() throws IOException {
+        StringBuilder json = new StringBuilder("[");
+        for (int i = 0; i < 1000; i++) {
+            json.append(i > 0 ? "," : "").append("{\"id\":").append(i).append("}");
+        }
+        json.append("]");
+
+        long sum = 0;
+        try (JsonReader reader = new JsonReader(new ByteArrayInputStream(json.toString().getBytes(StandardCharsets.UTF_8)))) {
+            assertThat(reader.nextToken()).isEqualTo(JsonToken.START_ARRAY);
+            while (reader.hasNext()) {
+                sum += ((JsonObject) reader.nextValue()).requiredLong("id");
+            }
+            assertThat(reader.nextToken()).isEqualTo(JsonToken.END_ARRAY);
+        }
+        assertThat(sum).isEqualTo(499500L);
+    }
+
+    @Test
+    public void shouldFailOnUnexpectedToken() {
+        JsonReader reader = new JsonReader(new StringReader("[1]"));
+        assertThatThrownBy(reader::nextString)
+                .isInstanceOf(JsonParseException.class)
+                .hasMessage("Expected STRING but was START_ARRAY");
+    }
+
+    private static String fixQuotes(String content) {
+        return content.replace("'", "\"");
+    }
+
+    @Test
+    public void shouldShareRepeatedKeys() throws IOException {
+        String json = "[{\"id\":1,\"name\":\"a\"},{\"id\":2,\"name\":\"b\"}]";
+        JsonReader[] readers = { new JsonReader(json.getBytes(StandardCharsets.UTF_8)), new JsonReader(new StringReader(json)) };
+        for (JsonReader reader : readers) {
+            JsonArray array = (JsonArray) reader.nextValue();
+            assertThat(array.requiredObject(1).keys().iterator().next())
+                    .isSameAs(array.requiredObject(0).keys().iterator().next());
+        }
+
+        JsonReader reader = new JsonReader(new StringReader(json));
+        reader.setKeyCache(null);
+        reader.nextToken();
+        reader.nextToken();
+        String firstKey = reader.nextName();
+        reader.skipValue();
+        reader.skipValue();
+        reader.nextToken();
+        reader.nextToken();
+        assertThat(reader.nextName() != firstKey).isTrue();
+    }
+}
@@ -0,0 +1,106 @@
+package org.jsonbuddy;
+
+import org.jsonbuddy.parse.JsonParseException;
+import org.jsonbuddy.parse.JsonParser;
+import org.jsonbuddy.parse.JsonTape;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class JsonTapeTest {
+
+    private final JsonObject document = new JsonObject()
+            .put("id", "order-1")
+            .put("skipped", new JsonObject().put("id", "nested").put("list", new JsonArray().add(new JsonObject()).add(new JsonArray())))
+            .put("amount", 1234567890123L)
+            .put("price", 12.5)
+            .put("paid", true)
+            .put("note", new JsonNull())
+            .put("text", "Bl\u00e5b\u00e6r \"quoted\"\n\u263a")
+            .put("lines", new JsonArray().add(new JsonObject().put("sku", "a").put("count", 2)).add(new JsonObject().put("sku", "b").put("count", 3)));
+
+    @Test
+    public void shouldReadFieldsFromTape() {
+        JsonTape.Value root = JsonTape.parse(document.toJson()).root();
+
+        assertThat(root.isObject()).isTrue();
+        assertThat(root.requiredString("id")).isEqualTo("order-1");
+        assertThat(root.requiredLong("amount")).isEqualTo(1234567890123L);
+        assertThat(root.requiredDouble("price")).isEqualTo(12.5);
+        assertThat(root.requiredBoolean("paid")).isTrue();
+        assertThat(root.stringValue("note")).isEmpty();
+        assertThat(root.stringValue("missing")).isEmpty();
+        assertThat(root.containsKey("note")).isTrue();
+        assertThat(root.requiredString("text")).isEqualTo("Bl\u00e5b\u00e6r \"quoted\"\n\u263a");
+        assertThat(root.requiredArray("lines").size()).isEqualTo(2);
+        assertThat(root.requiredArray("lines").get(1).requiredLong("count")).isEqualTo(3L);
+        assertThat(root.requiredArray("lines").elements().stream().map(line -> line.requiredString("sku")).collect(Collectors.toList()))
+                .containsExactly("a", "b");
+        assertThat(root.keys()).containsExactly("id", "skipped", "amount", "price", "paid", "note", "text", "lines");
+    }
+
+    @Test
+    public void shouldConvertToJsonNode() {
+        JsonTape tape = JsonTape.parse(document.toJson().getBytes(StandardCharsets.UTF_8));
+        assertThat(tape.root().toJsonNode()).isEqualTo(document);
+        assertThat(tape.root().requiredObject("skipped").toJsonNode()).isEqualTo(document.requiredObject("skipped"));
+
+        String numbers = "[1, -2, 3.5, 1e3, 123456789012345678901234567890, \"7\"]";
+        assertThat(JsonTape.parse(numbers).root().toJsonNode()).isEqualTo(JsonParser.parse(numbers));
+        assertThat(JsonTape.parse(numbers).root().get(4).numberValue())
+                .isEqualTo(new BigDecimal("123456789012345678901234567890"));
+        assertThat(JsonTape.parse(numbers).root().get(5).longValue()).isEqualTo(7L);
+
+        String exact = "{\"a\": [1, 2, 3], \"b\": [1.10, 2.5], \"c\": [-0, 0.5], \"d\": 1e5}";
+        JsonNode fromTape = JsonTape.parse(exact).root().toJsonNode();
+        assertThat(fromTape).isEqualTo(JsonParser.parse(exact));
+        assertThat(fromTape.toJson()).isEqualTo(JsonParser.parse(exact).toJson());
+        assertThat(fromTape.toJson()).isEqualTo("{\"a\":[1,2,3],\"b\":[1.10,2.5],\"c\":[-0,0.5],\"d\":1e5}");
+    }
+
+    @Test
+    public void shouldMatchEscapedKeys() {
+        JsonTape.Value root = JsonTape.parse("{\"a\\u0062\":1,\"\u00e6\":2,\"ab\":3}").root();
+        assertThat(root.requiredLong("ab")).isEqualTo(1L);
+        assertThat(root.requiredLong("\u00e6")).isEqualTo(2L);
+        assertThat(root.value("a")).isEqualTo(Optional.empty());
+    }
+
+    @Test
+    public void shouldThrowOnMissingOrWrongType() {
+        JsonTape.Value root = JsonTape.parse(document.toJson()).root();
+        assertThatThrownBy(() -> root.requiredString("missing"))
+                .isInstanceOf(JsonValueNotPresentException.class)
+                .hasMessage("Required key 'missing' does not exist");
+        assertThatThrownBy(() -> root.requiredObject("id"))
+                .isInstanceOf(JsonConversionException.class);
+        assertThatThrownBy(() -> root.requiredLong("id"))
+                .isInstanceOf(JsonConversionException.class);
+    }
+
+    @Test
+    public void shouldReportSyntaxErrors() {
+        assertThatThrownBy(() -> JsonTape.parse("[1, 2")).isInstanceOf(JsonParseException.class)
+                .hasMessage("Expected , or ] in array");
+        assertThatThrownBy(() -> JsonTape.parse("{\"a\" 1}")).isInstanceOf(JsonParseException.class)
+                .hasMessage("Expected value for objectkey a");
+        assertThatThrownBy(() -> JsonTape.parse("{\"a\": 2g}")).isInstanceOf(JsonParseException.class)
+                .hasMessage("Illegal value '2g'");
+        assertThatThrownBy(() -> JsonTape.parse("[\"abc]")).isInstanceOf(JsonParseException.class)
+                .hasMessage("JsonString not closed. Expected \"");
+        assertThatThrownBy(() -> JsonTape.parse("[foo]")).isInstanceOf(JsonParseException.class)
+                .hasMessage("Unexpected value foo]");
+        assertThatThrownBy(() -> JsonTape.parse("[Lorem]")).isInstanceOf(JsonParseException.class)
+                .hasMessage("Unexpected character 'L'");
+        assertThatThrownBy(() -> JsonTape.parse("[1-2]")).isInstanceOf(JsonParseException.class)
+                .hasMessage("Illegal value '1-2'");
+        assertThatThrownBy(() -> JsonTape.parse("{\"a\": [-]}")).isInstanceOf(JsonParseException.class)
+                .hasMessage("Illegal value '-'");
+    }
+}
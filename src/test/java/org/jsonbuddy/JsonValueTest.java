@@ -1,5 +1,6 @@
 package org.jsonbuddy;
 
+import org.jsonbuddy.parse.JsonParser;
 import org.junit.Test;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -32,5 +33,16 @@ public class JsonValueTest {
             .isNotEqualTo(false).isNotEqualTo(new JsonBoolean(true));
     }
 
+    @Test
+    public void shouldShareCanonicalLiterals() {
+        JsonArray array = JsonParser.parseToArray("[true, false, null]");
+
+        assertThat(array.get(0, JsonNode.class)).isSameAs(JsonBoolean.TRUE).isEqualTo(new JsonBoolean(true));
+        assertThat(array.get(1, JsonNode.class)).isSameAs(JsonBoolean.FALSE).isEqualTo(new JsonBoolean(false));
+        assertThat(array.get(2, JsonNode.class)).isSameAs(JsonNull.NULL).isEqualTo(new JsonNull());
+        assertThat(JsonFactory.jsonBoolean(true)).isSameAs(JsonBoolean.TRUE);
+        assertThat(new JsonObject().put("a", (Object) null).value("a").get()).isSameAs(JsonNull.NULL);
+        assertThat(new JsonBoolean(true).hashCode()).isEqualTo(JsonBoolean.TRUE.hashCode());
+    }
 
 }